@@ -240,6 +240,28 @@ case class MetaData(ms: List[MetaDataItem]) {
 
   lazy val availableColumns: List[String] = ms.flatMap(i => i.column.qualified :: i.column.alias.toList)
 
+  private lazy val qualifiedIndexes: Map[String, Int] = ms.map(_.column.qualified.toUpperCase()).zipWithIndex.toMap
+
+  private lazy val aliasedIndexes: Map[String, Int] = ms.zipWithIndex.flatMap {
+    case (m, i) => m.column.alias.map(_.toUpperCase() -> i)
+  }.toMap
+
+  private val indexes = scala.collection.concurrent.TrieMap.empty[String, Option[Int]]
+
+  private val aliasIndexes = scala.collection.concurrent.TrieMap.empty[String, Option[Int]]
+
+  /**
+   * The index of a column, resolved once per column name.
+   */
+  private[anorm] def indexOf(columnName: String): Option[Int] = indexes.getOrElseUpdate(columnName,
+    get(columnName).flatMap(meta => qualifiedIndexes.get(meta._1.qualified.toUpperCase())))
+
+  /**
+   * The index of an aliased column, resolved once per alias.
+   */
+  private[anorm] def aliasedIndexOf(aliasName: String): Option[Int] = aliasIndexes.getOrElseUpdate(aliasName,
+    getAliased(aliasName).flatMap(meta => meta._1.alias.flatMap(a => aliasedIndexes.get(a.toUpperCase()))))
+
 }
 
 trait Row {
@@ -294,6 +316,23 @@ case class SqlRow(metaData: MetaData, data: List[Any]) extends Row {
   override def toString() = "Row(" + metaData.ms.zip(data).map(t => "'" + t._1.column + "':" + t._2 + " as " + t._1.clazz).mkString(", ") + ")"
 }
 
+/**
+ * A row read by `Sql.fold`, whose columns are looked up by index.
+ */
+private[anorm] class CursorRow(val metaData: MetaData, values: Array[Any]) extends Row {
+
+  protected[anorm] lazy val data: List[Any] = values.toList
+
+  override private[anorm] def get1(a: String): MayErr[SqlRequestError, Any] =
+    metaData.indexOf(a).map(values(_)).toRight(ColumnNotFound(a, metaData.availableColumns))
+
+  override private[anorm] def getAliased(a: String): MayErr[SqlRequestError, Any] =
+    metaData.aliasedIndexOf(a).map(values(_)).toRight(ColumnNotFound(a, metaData.availableColumns))
+
+  override def toString() = "Row(" + metaData.ms.zip(values).map(t => "'" + t._1.column + "':" + t._2 + " as " + t._1.clazz).mkString(", ") + ")"
+
+}
+
 object Useful {
 
   case class Var[T](var content: T)
@@ -389,6 +428,7 @@ case class SimpleSql[T](sql: SqlQuery, params: Seq[(String, ParameterValue[_])],
     else connection.prepareStatement(sql.query)
 
     sql.queryTimeout.foreach(timeout => s.setQueryTimeout(timeout))
+    sql.fetchSize.foreach(rows => s.setFetchSize(rows))
 
     val argsMap = Map(params: _*)
     sql.argsInitialOrder.map(argsMap)
@@ -400,6 +440,25 @@ case class SimpleSql[T](sql: SqlQuery, params: Seq[(String, ParameterValue[_])],
   def using[U](p: RowParser[U]): SimpleSql[U] = SimpleSql(sql, params, p)
 
   def withQueryTimeout(seconds: Option[Int]): SimpleSql[T] = this.copy(sql = sql.withQueryTimeout(seconds))
+
+  def withFetchSize(rows: Option[Int]): SimpleSql[T] = this.copy(sql = sql.withFetchSize(rows))
+}
+
+/**
+ * The result of a batch executed in chunks.
+ *
+ * @param rows the number of parameter sets executed
+ * @param updated the number of rows the database reported as updated
+ * @param generatedKeys the keys generated by the database, for `executeChunkedInsert`
+ * @param millis the execution time, in milliseconds
+ */
+case class BatchResult[+A](rows: Long, updated: Long, generatedKeys: Seq[A], millis: Long) {
+
+  /**
+   * The number of parameter sets executed per second.
+   */
+  def rowsPerSecond: Double = rows * 1000.0 / math.max(millis, 1)
+
 }
 
 case class BatchSql(sql: SqlQuery, params: Seq[Seq[(String, ParameterValue[_])]]) {
@@ -416,22 +475,95 @@ case class BatchSql(sql: SqlQuery, params: Seq[Seq[(String, ParameterValue[_])]]
 
     sql.queryTimeout.foreach(timeout => statement.setQueryTimeout(timeout))
 
-    params.foldLeft(statement)((s, ps) => {
-      val argsMap = Map(ps: _*)
-      val result = sql.argsInitialOrder
-        .map(argsMap)
-        .zipWithIndex
-        .map(_.swap)
-        .foldLeft(s)((s, e) => { e._2.set(s, e._1 + 1); s })
-      s.addBatch()
-      result
-    })
+    params.foreach { ps =>
+      bind(statement, ps)
+      statement.addBatch()
+    }
+    statement
+  }
+
+  private def bind(statement: java.sql.PreparedStatement, ps: Seq[(String, ParameterValue[_])]) {
+    val argsMap = Map(ps: _*)
+    sql.argsInitialOrder.map(argsMap).zipWithIndex.foreach { case (value, index) => value.set(statement, index + 1) }
   }
 
   def filledStatement(implicit connection: java.sql.Connection) = getFilledStatement(connection)
 
   def execute()(implicit connection: java.sql.Connection): Array[Int] = getFilledStatement(connection).executeBatch()
 
+  /**
+   * Executes the batch with parameter sets read from an iterator, sending them to the database `chunkSize` at a time,
+   * so that neither the parameter sets nor the whole JDBC batch are held in memory.
+   *
+   * The parameter sets added with `addBatch` are executed first.
+   *
+   * @param rows the parameter sets
+   * @param chunkSize the number of parameter sets sent to the database at a time
+   * @param commit whether to commit the transaction after each chunk, when the connection is not in auto-commit mode
+   */
+  def executeChunked(rows: Iterator[Seq[(String, ParameterValue[_])]], chunkSize: Int, commit: Boolean = false)(implicit connection: java.sql.Connection): BatchResult[Nothing] =
+    executeChunks[Nothing](rows, chunkSize, commit, None)
+
+  /**
+   * Executes the batch like `executeChunked`, collecting the keys generated for each chunk.
+   *
+   * @param generatedKeysParser parses each generated key
+   */
+  def executeChunkedInsert[A](rows: Iterator[Seq[(String, ParameterValue[_])]], chunkSize: Int, commit: Boolean = false, generatedKeysParser: RowParser[A] = scalar[Long])(implicit connection: java.sql.Connection): BatchResult[A] =
+    executeChunks(rows, chunkSize, commit, Some(generatedKeysParser))
+
+  private def executeChunks[A](rows: Iterator[Seq[(String, ParameterValue[_])]], chunkSize: Int, commit: Boolean, keysParser: Option[RowParser[A]])(implicit connection: java.sql.Connection): BatchResult[A] = {
+    require(chunkSize > 0, "chunkSize must be positive")
+    val start = System.nanoTime
+    val statement = if (keysParser.isDefined) connection.prepareStatement(sql.query, java.sql.Statement.RETURN_GENERATED_KEYS)
+    else connection.prepareStatement(sql.query)
+
+    try {
+      sql.queryTimeout.foreach(timeout => statement.setQueryTimeout(timeout))
+
+      val keys = Vector.newBuilder[A]
+      var executed = 0L
+      var updated = 0L
+      var pending = 0
+
+      def flush() {
+        updated += statement.executeBatch().foldLeft(0L)((sum, count) => if (count > 0) sum + count else sum)
+        keysParser.foreach(parser => keys ++= generatedKeys(statement, parser))
+        if (commit && !connection.getAutoCommit) connection.commit()
+        executed += pending
+        pending = 0
+      }
+
+      (params.iterator ++ rows).foreach { ps =>
+        bind(statement, ps)
+        statement.addBatch()
+        pending += 1
+        if (pending == chunkSize) flush()
+      }
+      if (pending > 0) flush()
+
+      BatchResult(executed, updated, keys.result(), (System.nanoTime - start) / 1000000)
+    } finally {
+      statement.close()
+    }
+  }
+
+  private def generatedKeys[A](statement: java.sql.PreparedStatement, parser: RowParser[A]): Seq[A] = {
+    val rs = statement.getGeneratedKeys
+    try {
+      val rsMetaData = Sql.metaData(rs)
+      val columns = List.range(1, rsMetaData.columnCount + 1)
+      val keys = Vector.newBuilder[A]
+      while (rs.next()) parser(SqlRow(rsMetaData, columns.map(rs.getObject(_)))) match {
+        case Success(key) => keys += key
+        case Error(e) => sys.error(e.toString)
+      }
+      keys.result()
+    } finally {
+      rs.close()
+    }
+  }
+
   def withQueryTimeout(seconds: Option[Int]): BatchSql = this.copy(sql = sql.withQueryTimeout(seconds))
 }
 
@@ -460,6 +592,22 @@ trait Sql {
 
   def parse[T](parser: ResultSetParser[T])(implicit connection: java.sql.Connection): T = Sql.parse[T](parser, resultSet())
 
+  /**
+   * Reads the rows one at a time, without keeping them in memory.
+   *
+   * Each row is only valid in `op`: it is not retained once `op` returns. The statement is closed once all the rows
+   * are read, or `op` throws an exception.
+   *
+   * @param z the initial value
+   * @param op combines the value with each row
+   */
+  def fold[T](z: T)(op: (T, Row) => T)(implicit connection: java.sql.Connection): T = Sql.fold(resultSet())(z)(op)
+
+  /**
+   * Reads the rows one at a time, without keeping them in memory.
+   */
+  def foreach(f: Row => Unit)(implicit connection: java.sql.Connection): Unit = fold(())((_, row) => f(row))
+
   def execute()(implicit connection: java.sql.Connection): Boolean = getFilledStatement(connection).execute()
 
   def execute1(getGeneratedKeys: Boolean = false)(implicit connection: java.sql.Connection): (java.sql.PreparedStatement, Int) = {
@@ -476,20 +624,25 @@ trait Sql {
 
 }
 
-case class SqlQuery(query: String, argsInitialOrder: List[String] = List.empty, queryTimeout: Option[Int] = None) extends Sql {
+case class SqlQuery(query: String, argsInitialOrder: List[String] = List.empty, queryTimeout: Option[Int] = None, fetchSize: Option[Int] = None) extends Sql {
 
   def getFilledStatement(connection: java.sql.Connection, getGeneratedKeys: Boolean = false): java.sql.PreparedStatement =
     asSimple.getFilledStatement(connection, getGeneratedKeys)
 
   def withQueryTimeout(seconds: Option[Int]): SqlQuery = this.copy(queryTimeout = seconds)
 
+  /**
+   * Sets the number of rows fetched from the database at a time, as a hint to the JDBC driver.
+   */
+  def withFetchSize(rows: Option[Int]): SqlQuery = this.copy(fetchSize = rows)
+
   private def defaultParser: RowParser[Row] = RowParser(row => Success(row))
 
   def asSimple: SimpleSql[Row] = SimpleSql(this, Nil, defaultParser)
 
   def asSimple[T](parser: RowParser[T] = defaultParser): SimpleSql[T] = SimpleSql(this, Nil, parser)
 
-  def asBatch[T]: BatchSql = BatchSql(this, Nil)
+  def asBatch[T]: BatchSql = BatchSql(this, Vector.empty)
 }
 
 object Sql {
@@ -527,6 +680,29 @@ object Sql {
     Useful.unfold(rs)(rs => if (!rs.next()) { rs.getStatement.close(); None } else Some((new SqlRow(rsMetaData, data(rs)), rs)))
   }
 
+  /**
+   * Reads the rows of a result set one at a time, then closes its statement.
+   */
+  def fold[T](rs: java.sql.ResultSet)(z: T)(op: (T, Row) => T): T = {
+    try {
+      val rsMetaData = metaData(rs)
+      val columnCount = rsMetaData.columnCount
+      var result = z
+      while (rs.next()) {
+        val values = new scala.Array[Any](columnCount)
+        var i = 0
+        while (i < columnCount) {
+          values(i) = rs.getObject(i + 1)
+          i += 1
+        }
+        result = op(result, new CursorRow(rsMetaData, values))
+      }
+      result
+    } finally {
+      rs.getStatement.close()
+    }
+  }
+
   import SqlParser._
 
   def as[T](parser: ResultSetParser[T], rs: java.sql.ResultSet): T =
@@ -0,0 +1,235 @@
+package play.filters.gzip {
+
+  import play.api._
+  import play.api.mvc._
+  import play.api.http.HeaderNames._
+  import play.api.http.Status._
+  import play.api.libs.iteratee._
+  import play.core.Execution.internalContext
+
+  import java.util.zip.{ CRC32, Deflater }
+  import scala.collection.JavaConverters._
+
+  /**
+   * A filter compressing the body of the results with gzip or deflate, when the client accepts it.
+   *
+   * The body is compressed as it is enumerated, so results are streamed without being buffered.
+   * Compressed results lose their `Content-Length` and `Accept-Ranges`, and every result that could be compressed gets a
+   * `Vary: Accept-Encoding` header so that caches keep both versions apart.
+   *
+   * {{{
+   * object Global extends WithFilters(new GzipFilter())
+   * }}}
+   *
+   * The settings default to the `gzip.minimumSize`, `gzip.mimeTypes`, `gzip.level` and `gzip.chunked` configuration
+   * keys.
+   *
+   * Compressed chunks are only emitted once the compressor has enough data, so chunked results, such as Comet streams,
+   * are only compressed when `chunked` is enabled. Chunked results that must reach the client as soon as each chunk is
+   * produced should then be excluded with `shouldGzip`.
+   *
+   * @param minimumSize results whose `Content-Length` is lower are not compressed
+   * @param mimeTypes the compressible content types, either full types like `text/html` or wildcards like `text/&#42;`
+   * @param level the compression level, from 0 to 9, or -1 for the default level
+   * @param shouldGzip whether a result may be compressed, in addition to the checks above
+   * @param chunked whether chunked results are compressed too
+   */
+  class GzipFilter(
+      minimumSize: => Int = Gzip.Conf.MINIMUM_SIZE,
+      mimeTypes: => Seq[String] = Gzip.Conf.MIME_TYPES,
+      level: => Int = Gzip.Conf.LEVEL,
+      shouldGzip: (RequestHeader, PlainResult) => Boolean = (_, _) => true,
+      chunked: => Boolean = Gzip.Conf.CHUNKED) extends EssentialFilter {
+
+    private lazy val settings = (minimumSize, mimeTypes.map(_.toLowerCase).toSet, level, chunked)
+
+    def apply(next: EssentialAction) = new EssentialAction {
+      def apply(request: RequestHeader) = {
+        val encoding = if (request.method == "HEAD") None else request.headers.get(ACCEPT_ENCODING).flatMap(Gzip.selectEncoding)
+        next(request).map {
+          case result: PlainResult => compress(request, result, encoding)
+          case result: AsyncResult => result.transform(compress(request, _, encoding))(internalContext)
+        }
+      }
+    }
+
+    private def compress(request: RequestHeader, result: PlainResult, encoding: Option[String]): PlainResult = {
+      val (minimumSize, mimeTypes, level, chunked) = settings
+      val headers = result.header.headers
+      val compressible = (chunked || !result.isInstanceOf[ChunkedResult[_]]) && headers.get(CONTENT_TYPE).exists(Gzip.matches(mimeTypes, _)) &&
+        !headers.contains(CONTENT_ENCODING) && !headers.contains(CONTENT_RANGE) &&
+        result.header.status >= OK && result.header.status != NO_CONTENT && result.header.status != NOT_MODIFIED &&
+        headers.get(CONTENT_LENGTH).flatMap(length => scala.util.Try(length.toLong).toOption).forall(length => length < 0 || length >= minimumSize) &&
+        shouldGzip(request, result)
+
+      if (!compressible) result
+      else {
+        val vary = VARY -> headers.get(VARY).filterNot(_.split(',').exists(_.trim.equalsIgnoreCase(ACCEPT_ENCODING))).map(_ + ", " + ACCEPT_ENCODING).getOrElse(ACCEPT_ENCODING)
+        encoding.map { encoding =>
+          // Byte ranges of the compressed body don't match those of the original one
+          val compressedHeaders = headers - CONTENT_LENGTH - ACCEPT_RANGES + vary + (CONTENT_ENCODING -> encoding)
+          result match {
+            case r: SimpleResult[_] => compressSimple(r, compressedHeaders, encoding, level)
+            case r: ChunkedResult[_] => compressChunked(r, compressedHeaders, encoding, level)
+          }
+        }.getOrElse(result.withHeaders(vary))
+      }
+    }
+
+    private def compressSimple[A](result: SimpleResult[A], headers: Map[String, String], encoding: String, level: Int) = {
+      // An unknown length means that the connection is closed once the body is sent
+      val length = result.header.headers.get(CONTENT_LENGTH).filter(_ == "-1").map(CONTENT_LENGTH -> _)
+      SimpleResult(
+        result.header.copy(headers = headers ++ length),
+        Gzip.compress(encoding, level, result.body &> Enumeratee.map[A](result.writeable.transform)))
+    }
+
+    private def compressChunked[A](result: ChunkedResult[A], headers: Map[String, String], encoding: String, level: Int) = {
+      ChunkedResult[Array[Byte]](
+        result.header.copy(headers = headers),
+        iteratee => result.chunks((Enumeratee.map[A](result.writeable.transform) ><> Gzip.compressor(encoding, level)) &>> iteratee))
+    }
+
+  }
+
+  object Gzip {
+
+    object Conf {
+
+      def c = Play.maybeApplication.map(_.configuration).getOrElse(Configuration.empty)
+
+      def MINIMUM_SIZE: Int = c.getInt("gzip.minimumSize").getOrElse(1024)
+      def MIME_TYPES: Seq[String] = c.getStringList("gzip.mimeTypes").map(_.asScala.toSeq).getOrElse(DefaultMimeTypes)
+      def LEVEL: Int = c.getInt("gzip.level").getOrElse(Deflater.DEFAULT_COMPRESSION)
+      def CHUNKED: Boolean = c.getBoolean("gzip.chunked").getOrElse(false)
+    }
+
+    val DefaultMimeTypes = Seq(
+      "text/html", "text/plain", "text/css", "text/csv", "text/xml", "text/javascript",
+      "application/json", "application/javascript", "application/xml", "application/xhtml+xml",
+      "application/rss+xml", "application/atom+xml", "image/svg+xml")
+
+    private val BufferSize = 8192
+
+    /**
+     * The header of a gzip stream: deflate compression method, no flags, no modification time, unknown OS.
+     */
+    private val GzipHeader = Array[Byte](0x1f, 0x8b.toByte, 8, 0, 0, 0, 0, 0, 0, 0xff.toByte)
+
+    /**
+     * Selects the encoding to use from an `Accept-Encoding` header: gzip is preferred over deflate when both are
+     * accepted.
+     */
+    def selectEncoding(acceptEncoding: String): Option[String] = {
+      val accepted = acceptEncoding.split(',').map(_.trim).filterNot(_.isEmpty).map { range =>
+        val parts = range.split(';').map(_.trim)
+        val q = parts.drop(1).collectFirst {
+          case param if param.startsWith("q=") => scala.util.Try(param.drop(2).toDouble).getOrElse(0d)
+        }.getOrElse(1d)
+        parts(0).toLowerCase -> q
+      }.toMap
+      def acceptable(encoding: String) = accepted.get(encoding).orElse(accepted.get("*")).exists(_ > 0)
+      Seq("gzip", "deflate").find(acceptable)
+    }
+
+    /**
+     * Whether a content type matches one of the given MIME types.
+     */
+    def matches(mimeTypes: Set[String], contentType: String): Boolean = {
+      val mimeType = contentType.split(';')(0).trim.toLowerCase
+      mimeTypes.contains(mimeType) || mimeTypes.contains(mimeType.takeWhile(_ != '/') + "/*")
+    }
+
+    /**
+     * Compresses a body with the given encoding.
+     */
+    def compress(encoding: String, level: Int, body: Enumerator[Array[Byte]]): Enumerator[Array[Byte]] = new Enumerator[Array[Byte]] {
+      def apply[A](i: Iteratee[Array[Byte], A]) = (body &> compressor(encoding, level)).apply(i)
+    }
+
+    /**
+     * An enumeratee compressing bytes with gzip or deflate. It holds the compressor state, so a new one must be
+     * created for each stream.
+     *
+     * The native memory of the compressor is released once the stream ends, or once the inner iteratee is done or
+     * failed, for example when the client disconnects.
+     */
+    def compressor(encoding: String, level: Int): Enumeratee[Array[Byte], Array[Byte]] = {
+      val gzip = encoding == "gzip"
+      val deflater = new Deflater(level, gzip)
+      val crc = new CRC32
+      val buffer = new Array[Byte](BufferSize)
+      var headerSent = !gzip
+      var released = false
+
+      def release() {
+        if (!released) {
+          released = true
+          deflater.end()
+        }
+      }
+
+      def deflate(more: Boolean): Array[Byte] = {
+        val out = new java.io.ByteArrayOutputStream
+        if (!headerSent) {
+          out.write(GzipHeader)
+          headerSent = true
+        }
+        while (if (more) !deflater.needsInput else !deflater.finished) {
+          out.write(buffer, 0, deflater.deflate(buffer))
+        }
+        out.toByteArray
+      }
+
+      def trailer: Array[Byte] = {
+        if (!gzip) Array.empty
+        else Seq(crc.getValue, deflater.getBytesRead).flatMap(value => (0 until 4).map(i => (value >> (i * 8)).toByte)).toArray
+      }
+
+      val deflating: Enumeratee[Array[Byte], Array[Byte]] = Enumeratee.mapInputFlatten[Array[Byte]] {
+        case Input.El(bytes) => {
+          crc.update(bytes)
+          deflater.setInput(bytes)
+          Some(deflate(true)).filterNot(_.isEmpty).map(Enumerator(_)).getOrElse(Enumerator.enumInput(Input.Empty))
+        }
+        case Input.Empty => Enumerator.enumInput(Input.Empty)
+        case Input.EOF => {
+          deflater.finish()
+          val last = deflate(false) ++ trailer
+          release()
+          Enumerator(last) >>> Enumerator.enumInput(Input.EOF)
+        }
+      }
+
+      deflating ><> onEnd(() => release())
+    }
+
+    /**
+     * An enumeratee running an action once the stream ends, or once the inner iteratee is done or failed.
+     */
+    private def onEnd[E](action: () => Unit): Enumeratee[E, E] = new Enumeratee[E, E] {
+
+      def applyOn[A](inner: Iteratee[E, A]): Iteratee[E, Iteratee[E, A]] = {
+
+        def step(k: Input[E] => Iteratee[E, A]): Input[E] => Iteratee[E, Iteratee[E, A]] = {
+          case Input.EOF =>
+            action()
+            Done(Cont(k), Input.EOF)
+          case in => check(k(in))
+        }
+
+        def check(it: Iteratee[E, A]): Iteratee[E, Iteratee[E, A]] = it.pureFlatFold[E, Iteratee[E, A]] {
+          case Step.Cont(k) => Cont(step(k))
+          case _ =>
+            action()
+            Done(it, Input.Empty)
+        }
+
+        check(inner)
+      }
+
+    }
+
+  }
+
+}
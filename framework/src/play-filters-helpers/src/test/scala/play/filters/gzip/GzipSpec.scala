@@ -0,0 +1,159 @@
+package play.filters.gzip
+
+import org.specs2.mutable._
+import play.api.mvc._
+import play.api.libs.iteratee._
+
+import java.io.ByteArrayInputStream
+import java.util.zip.{ GZIPInputStream, InflaterInputStream }
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+
+object GzipSpec extends Specification {
+
+  "Gzip.selectEncoding" should {
+
+    "prefer gzip over deflate" in {
+      Gzip.selectEncoding("deflate, gzip") must beSome("gzip")
+      Gzip.selectEncoding("deflate") must beSome("deflate")
+      Gzip.selectEncoding("GZIP") must beSome("gzip")
+    }
+
+    "follow the q-values" in {
+      Gzip.selectEncoding("gzip;q=0, deflate;q=0.5") must beSome("deflate")
+      Gzip.selectEncoding("gzip; q=0.2, identity;q=0") must beSome("gzip")
+      Gzip.selectEncoding("gzip;q=0, deflate;q=0") must beNone
+    }
+
+    "accept wildcards" in {
+      Gzip.selectEncoding("*") must beSome("gzip")
+      Gzip.selectEncoding("gzip;q=0, *") must beSome("deflate")
+      Gzip.selectEncoding("*;q=0") must beNone
+    }
+
+    "select nothing for other encodings" in {
+      Gzip.selectEncoding("identity;q=0") must beNone
+      Gzip.selectEncoding("identity, compress") must beNone
+      Gzip.selectEncoding("") must beNone
+    }
+
+  }
+
+  "Gzip.compressor" should {
+
+    val body = (1 to 1000).map("line " + _ + "\n").mkString
+    val chunks = body.grouped(100).map(_.getBytes("UTF-8")).toSeq
+
+    def compress(encoding: String): Array[Byte] = {
+      Await.result(Enumerator(chunks: _*) |>>> (Gzip.compressor(encoding, -1) &>> Iteratee.getChunks[Array[Byte]]), Duration(5, "seconds")).toArray.flatten
+    }
+
+    def read(in: java.io.InputStream): String = scala.io.Source.fromInputStream(in, "UTF-8").mkString
+
+    "compress with gzip" in {
+      val compressed = compress("gzip")
+      compressed.length must beLessThan(body.length)
+      read(new GZIPInputStream(new ByteArrayInputStream(compressed))) must_== body
+    }
+
+    "compress with deflate" in {
+      val compressed = compress("deflate")
+      compressed.length must beLessThan(body.length)
+      read(new InflaterInputStream(new ByteArrayInputStream(compressed))) must_== body
+    }
+
+    "compress an empty body" in {
+      val compressed = Await.result(Enumerator[Array[Byte]]() |>>> (Gzip.compressor("gzip", -1) &>> Iteratee.getChunks[Array[Byte]]), Duration(5, "seconds")).toArray.flatten
+      read(new GZIPInputStream(new ByteArrayInputStream(compressed))) must_== ""
+    }
+
+    "stop when the iteratee is done" in {
+      Await.result(Enumerator(chunks: _*) |>>> (Gzip.compressor("gzip", -1) &>> Iteratee.head[Array[Byte]]), Duration(5, "seconds")) must beSome
+    }
+
+  }
+
+
+  "GzipFilter" should {
+
+    val body = (1 to 1000).map("line " + _ + "\n").mkString
+
+    def filter(result: => Result, method: String = "GET", acceptEncoding: Option[String] = Some("gzip"), chunked: Boolean = false): PlainResult = {
+      val gzipFilter = new GzipFilter(minimumSize = 1024, mimeTypes = Seq("text/plain", "text/html"), level = -1, chunked = chunked)
+      val action = gzipFilter(EssentialAction(_ => Done[Array[Byte], Result](result, Input.Empty)))
+      Await.result(action(request(method, acceptEncoding.map("Accept-Encoding" -> _).toSeq: _*)).run, Duration(5, "seconds")) match {
+        case result: PlainResult => result
+        case AsyncResult(future) => Await.result(future, Duration(5, "seconds")).asInstanceOf[PlainResult]
+      }
+    }
+
+    def consume(result: PlainResult): Array[Byte] = result match {
+      case result: SimpleResult[_] => consumeSimple(result)
+    }
+
+    def consumeSimple[A](result: SimpleResult[A]): Array[Byte] = {
+      Await.result((result.body &> Enumeratee.map[A](result.writeable.transform)) |>>> Iteratee.consume[Array[Byte]](), Duration(5, "seconds"))
+    }
+
+    def ok(content: String) = Results.Ok(content).withHeaders("Content-Length" -> content.getBytes("UTF-8").length.toString)
+
+    def read(bytes: Array[Byte]): String = scala.io.Source.fromInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes)), "UTF-8").mkString
+
+    "compress the results accepted with gzip" in {
+      val result = filter(ok(body).withHeaders("Accept-Ranges" -> "bytes"))
+      val headers = result.header.headers
+      headers.get("Content-Encoding") must beSome("gzip")
+      headers.get("Vary") must beSome("Accept-Encoding")
+      headers.get("Content-Length") must beNone
+      headers.get("Accept-Ranges") must beNone
+      read(consume(result)) must_== body
+    }
+
+    "keep the existing Vary header" in {
+      filter(ok(body).withHeaders("Vary" -> "Cookie")).header.headers.get("Vary") must beSome("Cookie, Accept-Encoding")
+    }
+
+    "only vary the results when the client doesn't accept gzip" in {
+      val result = filter(ok(body), acceptEncoding = None)
+      result.header.headers.get("Content-Encoding") must beNone
+      result.header.headers.get("Vary") must beSome("Accept-Encoding")
+      new String(consume(result), "UTF-8") must_== body
+    }
+
+    "not compress the results smaller than the minimum size" in {
+      val result = filter(ok("small"))
+      result.header.headers.get("Content-Encoding") must beNone
+      result.header.headers.get("Content-Length") must beSome("5")
+    }
+
+    "only compress the listed content types" in {
+      filter(ok(body).as("image/svg+xml")).header.headers.get("Content-Encoding") must beNone
+      filter(ok(body).as("text/html; charset=utf-8")).header.headers.get("Content-Encoding") must beSome("gzip")
+    }
+
+    "pass HEAD requests, No Content and Not Modified results through" in {
+      filter(ok(body), method = "HEAD").header.headers.get("Content-Encoding") must beNone
+      filter(Results.NoContent.as("text/plain")).header.headers.get("Content-Encoding") must beNone
+      filter(Results.NotModified.as("text/plain")).header.headers.get("Content-Encoding") must beNone
+    }
+
+    "only compress chunked results when enabled" in {
+      filter(Results.Ok.stream(Enumerator(body))).header.headers.get("Content-Encoding") must beNone
+      filter(Results.Ok.stream(Enumerator(body)), chunked = true).header.headers.get("Content-Encoding") must beSome("gzip")
+    }
+
+  }
+
+  def request(requestMethod: String, requestHeaders: (String, String)*): RequestHeader = new RequestHeader {
+    def id = 1
+    def tags = Map()
+    def uri = "/"
+    def path = "/"
+    def method = requestMethod
+    def version = "HTTP/1.1"
+    def queryString = Map()
+    def remoteAddress = "127.0.0.1"
+    lazy val headers = new Headers { val data = requestHeaders.map { case (name, value) => name -> Seq(value) } }
+  }
+
+}
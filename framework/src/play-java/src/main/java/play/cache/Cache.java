@@ -1,7 +1,12 @@
 package play.cache;
 
+import java.util.Map;
 import java.util.concurrent.Callable;
 
+import play.libs.F.Function;
+import play.libs.F.Promise;
+import play.libs.Scala;
+
 /**
  * Provides an access point for Play's cache service.
  */
@@ -18,6 +23,9 @@ public class Cache {
 
   /**
    * Retrieve a value from the cache, or set it from a default Callable function.
+   *
+   * When the value is missing, only one caller per key invokes the Callable, while the concurrent callers wait for
+   * its value, for up to <code>cache.loadTimeout</code>.
    * 
    * @param key Item key.
    * @param value to set if key does not exist
@@ -25,16 +33,63 @@ public class Cache {
    * @return value 
    */
   @SuppressWarnings("unchecked")
-public static <T> T getOrElse(String key, Callable<T> block, int expiration) throws Exception{
-     Object r = play.libs.Scala.orNull(play.api.cache.Cache.get(key,play.api.Play.unsafeApplication()));
-     if (r == null) {
-         T value = block.call();
-         set(key,value,expiration);
-         return value;
-     } else return (T)r;
-     
+  public static <T> T getOrElse(String key, final Callable<T> block, int expiration) throws Exception {
+      try {
+          return (T)play.api.cache.Cache.getOrElse(key, expiration, new scala.runtime.AbstractFunction0<Object>() {
+              public Object apply() {
+                  try {
+                      return block.call();
+                  } catch(RuntimeException e) {
+                      throw e;
+                  } catch(Exception e) {
+                      throw new LoadingException(e);
+                  }
+              }
+          }, play.api.Play.unsafeApplication(), scala.reflect.ClassTag$.MODULE$.Object());
+      } catch(LoadingException e) {
+          throw (Exception)e.getCause();
+      }
+  }
+
+  /**
+   * Retrieve a value from the cache, or set it from a default Callable function returning a promise.
+   *
+   * When the value is missing, only one caller per key invokes the Callable, and the concurrent callers get the same
+   * promise.
+   *
+   * @param key Item key.
+   * @param block the promise of the value to set if key does not exist
+   * @param expiration expiration period in seconds.
+   * @return the promise of the value
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> Promise<T> getOrElseAsync(String key, final Callable<Promise<T>> block, int expiration) {
+      return new Promise<Object>(play.api.cache.Cache.getOrElseAsync(key, expiration, new scala.runtime.AbstractFunction0<scala.concurrent.Future<Object>>() {
+          public scala.concurrent.Future<Object> apply() {
+              try {
+                  return (scala.concurrent.Future<Object>)(scala.concurrent.Future)block.call().getWrappedPromise();
+              } catch(RuntimeException e) {
+                  throw e;
+              } catch(Exception e) {
+                  throw new RuntimeException(e);
+              }
+          }
+      }, play.api.Play.unsafeApplication(), scala.reflect.ClassTag$.MODULE$.Object())).map(new Function<Object, T>() {
+          public T apply(Object value) {
+              return (T)value;
+          }
+      });
+  }
+
+  /**
+   * Carries the checked exception thrown by a getOrElse Callable through the Scala API.
+   */
+  private static class LoadingException extends RuntimeException {
+      LoadingException(Exception cause) {
+          super(cause);
+      }
   }
-  
+
   /**
    * Sets a value with expiration.
    * 
@@ -55,4 +110,152 @@ public static <T> T getOrElse(String key, Callable<T> block, int expiration) thr
   public static void remove(String key) {
       play.api.cache.Cache.remove(key, play.api.Play.unsafeApplication());
   }
+
+  /**
+   * Atomically adds a number to a value, or sets it to <code>initial</code> if it is missing or is not a number.
+   *
+   * @param delta the number to add, which may be negative
+   * @param initial the value of a missing key
+   * @param expiration expiration in seconds of a missing key
+   * @return the new value
+   */
+  public static long incr(String key, long delta, long initial, int expiration) {
+      return play.api.cache.Cache.incr(key, delta, initial, expiration, play.api.Play.unsafeApplication());
+  }
+
+  /**
+   * Atomically sets a value with expiration, unless a value is already set.
+   *
+   * @param expiration expiration in seconds
+   * @return the value already set, or null if the value was set
+   */
+  public static Object putIfAbsent(String key, Object value, int expiration) {
+      return Scala.orNull(play.api.cache.Cache.putIfAbsent(key, value, expiration, play.api.Play.unsafeApplication()));
+  }
+
+  /**
+   * Atomically sets a value without expiration, unless a value is already set.
+   *
+   * @return the value already set, or null if the value was set
+   */
+  public static Object putIfAbsent(String key, Object value) {
+      return putIfAbsent(key, value, 0);
+  }
+
+  /**
+   * Atomically replaces a value with expiration, if it is equal to the expected value.
+   *
+   * @param expiration expiration in seconds
+   * @return whether the value was replaced
+   */
+  public static boolean replace(String key, Object expected, Object value, int expiration) {
+      return play.api.cache.Cache.replace(key, expected, value, expiration, play.api.Play.unsafeApplication());
+  }
+
+  /**
+   * Atomically replaces a value without expiration, if it is equal to the expected value.
+   *
+   * @return whether the value was replaced
+   */
+  public static boolean replace(String key, Object expected, Object value) {
+      return replace(key, expected, value, 0);
+  }
+
+  /**
+   * Retrieves several objects by key.
+   *
+   * @return the objects found, by key
+   */
+  public static Map<String, Object> getAll(String... keys) {
+      return Scala.asJava(play.api.cache.Cache.getAll(Scala.toSeq(keys), play.api.Play.unsafeApplication()));
+  }
+
+  /**
+   * Sets several values with expiration.
+   *
+   * @param expiration expiration in seconds
+   */
+  public static void setAll(Map<String, Object> values, int expiration) {
+      play.api.cache.Cache.setAll(Scala.asScala(values), expiration, play.api.Play.unsafeApplication());
+  }
+
+  /**
+   * Sets several values without expiration.
+   */
+  public static void setAll(Map<String, Object> values) {
+      setAll(values, 0);
+  }
+
+  /**
+   * Removes several values.
+   */
+  public static void removeAll(String... keys) {
+      play.api.cache.Cache.removeAll(Scala.toSeq(keys), play.api.Play.unsafeApplication());
+  }
+
+  /**
+   * Retrieves an object by key, without blocking.
+   *
+   * @return a promise of the object, or of null if it is not in the cache
+   */
+  public static Promise<Object> getAsync(String key) {
+      return new Promise<scala.Option<Object>>(play.api.cache.Cache.getAsync(key, play.api.Play.unsafeApplication())).map(new Function<scala.Option<Object>, Object>() {
+          public Object apply(scala.Option<Object> value) {
+              return Scala.orNull(value);
+          }
+      });
+  }
+
+  /**
+   * Sets a value with expiration, without blocking.
+   *
+   * @param expiration expiration in seconds
+   */
+  public static Promise<Void> setAsync(String key, Object value, int expiration) {
+      return done(play.api.cache.Cache.setAsync(key, value, expiration, play.api.Play.unsafeApplication()));
+  }
+
+  /**
+   * Removes a value, without blocking.
+   */
+  public static Promise<Void> removeAsync(String key) {
+      return done(play.api.cache.Cache.removeAsync(key, play.api.Play.unsafeApplication()));
+  }
+
+  /**
+   * Retrieves several objects by key, without blocking.
+   *
+   * @return a promise of the objects found, by key
+   */
+  public static Promise<Map<String, Object>> getAllAsync(String... keys) {
+      return new Promise<scala.collection.immutable.Map<String, Object>>(play.api.cache.Cache.getAllAsync(Scala.toSeq(keys), play.api.Play.unsafeApplication())).map(new Function<scala.collection.immutable.Map<String, Object>, Map<String, Object>>() {
+          public Map<String, Object> apply(scala.collection.immutable.Map<String, Object> values) {
+              return Scala.asJava(values);
+          }
+      });
+  }
+
+  /**
+   * Sets several values with expiration, without blocking.
+   *
+   * @param expiration expiration in seconds
+   */
+  public static Promise<Void> setAllAsync(Map<String, Object> values, int expiration) {
+      return done(play.api.cache.Cache.setAllAsync(Scala.asScala(values), expiration, play.api.Play.unsafeApplication()));
+  }
+
+  /**
+   * Removes several values, without blocking.
+   */
+  public static Promise<Void> removeAllAsync(String... keys) {
+      return done(play.api.cache.Cache.removeAllAsync(Scala.toSeq(keys), play.api.Play.unsafeApplication()));
+  }
+
+  private static Promise<Void> done(scala.concurrent.Future<scala.runtime.BoxedUnit> operation) {
+      return new Promise<scala.runtime.BoxedUnit>(operation).map(new Function<scala.runtime.BoxedUnit, Void>() {
+          public Void apply(scala.runtime.BoxedUnit unit) {
+              return null;
+          }
+      });
+  }
 }
\ No newline at end of file
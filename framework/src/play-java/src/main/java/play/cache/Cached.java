@@ -5,6 +5,9 @@ import java.lang.annotation.*;
 
 /**
  * Mark an action to be cached on server side.
+ *
+ * Its <code>OK</code> results without cookies are cached with an <code>ETag</code>, and requests whose
+ * <code>If-None-Match</code> header matches it get <code>304 Not Modified</code>, without invoking the action.
  */
 @With(CachedAction.class)
 @Target({ElementType.TYPE, ElementType.METHOD})
@@ -7,22 +7,24 @@ import play.mvc.Http.*;
  * Cache another action.
  */
 public class CachedAction extends Action<Cached> {
-    
-    public Result call(Context ctx) {
-        try {
-            String key = configuration.key();
-            Integer duration = configuration.duration();
-            Result result = (Result)Cache.get(key);
-            if(result == null) {
-                result = delegate.call(ctx);
-                Cache.set(key, result, duration);
+
+    public Result call(final Context ctx) {
+        final play.api.mvc.Result result = play.api.cache.Cached$.MODULE$.serve(configuration.key(), configuration.duration(), ctx._requestHeader(), new scala.runtime.AbstractFunction0<play.api.mvc.Result>() {
+            public play.api.mvc.Result apply() {
+                try {
+                    return delegate.call(ctx).getWrappedResult();
+                } catch(RuntimeException e) {
+                    throw e;
+                } catch(Throwable t) {
+                    throw new RuntimeException(t);
+                }
+            }
+        }, play.api.Play.unsafeApplication());
+        return new Result() {
+            public play.api.mvc.Result getWrappedResult() {
+                return result;
             }
-            return result;
-        } catch(RuntimeException e) {
-            throw e;
-        } catch(Throwable t) {
-            throw new RuntimeException(t);
-        }
+        };
     }
 
-}
\ No newline at end of file
+}
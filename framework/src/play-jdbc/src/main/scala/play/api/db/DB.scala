@@ -39,6 +39,11 @@ trait DBApi {
    */
   def getDataSource(name: String): DataSource
 
+  /**
+   * The connection pool metrics of each data source, by name, for the pools recording them.
+   */
+  def metrics: Map[String, PoolMetrics] = Map.empty
+
   /**
    * Retrieves the JDBC connection URL for a particular data source.
    *
@@ -77,7 +82,7 @@ trait DBApi {
    * @param block Code block to execute.
    */
   def withConnection[A](name: String)(block: Connection => A): A = {
-    val connection = new AutoCleanConnection(getConnection(name))
+    val connection = autoClean(name, getConnection(name))
     try {
       block(connection)
     } finally {
@@ -85,6 +90,11 @@ trait DBApi {
     }
   }
 
+  /**
+   * Wraps a connection of the given data source to release its statements on close.
+   */
+  private[db] def autoClean(name: String, connection: Connection): Connection = new AutoCleanConnection(connection)
+
   /**
    * Execute a block of code, in the scope of a JDBC transaction.
    * The connection and all created statements are automatically released.
@@ -140,6 +150,15 @@ object DB {
    */
   def getDataSource(name: String = "default")(implicit app: Application): DataSource = app.plugin[DBPlugin].map(_.api.getDataSource(name)).getOrElse(error)
 
+  /**
+   * The connection pool metrics of each data source, by name.
+   *
+   * {{{
+   * val pending = DB.metrics.get("default").map(_.pending)
+   * }}}
+   */
+  def metrics(implicit app: Application): Map[String, PoolMetrics] = app.plugin[DBPlugin].map(_.api.metrics).getOrElse(error)
+
   /**
    * Execute a block of code, providing a JDBC connection. The connection is
    * automatically released.
@@ -286,9 +305,30 @@ private[db] class BoneCPApi(configuration: Configuration, classloader: ClassLoad
     }
   }
 
+  private val monitors = scala.collection.concurrent.TrieMap.empty[String, PoolMonitor]
+
+  /**
+   * The statement caches of each physical connection, by data source name.
+   */
+  private val statementCaches = scala.collection.concurrent.TrieMap.empty[String, java.util.concurrent.ConcurrentHashMap[Connection, StatementCache]]
+
+  private def physical(connection: Connection): Connection = connection match {
+    case handle: ConnectionHandle => handle.getInternalConnection
+    case _ => connection
+  }
+
   private def createDataSource(dbName: String, url: String, driver: String, conf: Configuration): DataSource = {
 
-    val datasource = new BoneCPDataSource
+    val monitor = new PoolMonitor(conf.getMilliseconds("leakDetectionThreshold"))
+    monitors.put(dbName, monitor)
+
+    val statementCacheSize = conf.getInt("statementCacheSize").getOrElse(0)
+    val caches = new java.util.concurrent.ConcurrentHashMap[Connection, StatementCache]
+    if (statementCacheSize > 0) statementCaches.put(dbName, caches)
+
+    val datasource = new BoneCPDataSource {
+      override def getConnection() = monitor.checkingOut(super.getConnection())
+    }
 
     // Try to load the driver
     conf.getString("driver").map { driver =>
@@ -318,7 +358,17 @@ private[db] class BoneCPApi(configuration: Configuration, classloader: ClassLoad
     // Re-apply per connection config @ checkout
     datasource.setConnectionHook(new AbstractConnectionHook {
 
+      override def onAcquire(connection: ConnectionHandle) {
+        monitor.acquired()
+      }
+
+      override def onDestroy(connection: ConnectionHandle) {
+        monitor.destroyed()
+        Option(caches.remove(physical(connection))).foreach(_.close())
+      }
+
       override def onCheckIn(connection: ConnectionHandle) {
+        monitor.checkedIn(connection)
         if (logger.isTraceEnabled) {
           logger.trace("Check in connection [%s leased]".format(datasource.getTotalLeased))
         }
@@ -329,6 +379,7 @@ private[db] class BoneCPApi(configuration: Configuration, classloader: ClassLoad
         isolation.map(connection.setTransactionIsolation(_))
         connection.setReadOnly(readOnly)
         catalog.map(connection.setCatalog(_))
+        monitor.checkedOut(connection)
         if (logger.isTraceEnabled) {
           logger.trace("Check out connection [%s leased]".format(datasource.getTotalLeased))
         }
@@ -389,6 +440,14 @@ private[db] class BoneCPApi(configuration: Configuration, classloader: ClassLoad
     conf.getBoolean("logStatements").map(datasource.setLogStatementsEnabled(_))
     conf.getString("connectionTestStatement").map(datasource.setConnectionTestStatement(_))
 
+    // Register the pool metrics in JMX
+    if (conf.getBoolean("metricsJMX").getOrElse(false)) {
+      val server = java.lang.management.ManagementFactory.getPlatformMBeanServer
+      val name = metricsName(dbName)
+      if (server.isRegistered(name)) server.unregisterMBean(name)
+      server.registerMBean(monitor, name)
+    }
+
     // Bind in JNDI
     conf.getString("jndiName").map { name =>
       JNDI.initialContext.rebind(name, datasource)
@@ -407,13 +466,37 @@ private[db] class BoneCPApi(configuration: Configuration, classloader: ClassLoad
     createDataSource(dbName, url, driver, extraConfig) -> dbName
   }.toList
 
+  private def metricsName(dbName: String) = {
+    new javax.management.ObjectName("play.api.db:type=PoolMetrics,name=" + javax.management.ObjectName.quote(dbName))
+  }
+
   def shutdownPool(ds: DataSource) = {
     ds match {
-      case ds: BoneCPDataSource => ds.close()
+      case ds: BoneCPDataSource => {
+        ds.close()
+        datasources.find(_._1 == ds).foreach {
+          case (_, dbName) =>
+            val server = java.lang.management.ManagementFactory.getPlatformMBeanServer
+            if (server.isRegistered(metricsName(dbName))) server.unregisterMBean(metricsName(dbName))
+        }
+      }
       case _ => error(" - could not recognize DataSource, therefore unable to shutdown this pool")
     }
   }
 
+  override private[db] def autoClean(name: String, connection: Connection): Connection = {
+    val cache = statementCaches.get(name).map { caches =>
+      val key = physical(connection)
+      Option(caches.get(key)).getOrElse {
+        val cache = new StatementCache(configuration.getInt(name + ".statementCacheSize").get, monitors(name))
+        Option(caches.putIfAbsent(key, cache)).getOrElse(cache)
+      }
+    }
+    new AutoCleanConnection(connection, cache)
+  }
+
+  override def metrics: Map[String, PoolMetrics] = monitors.map { case (dbName, monitor) => dbName -> monitor.metrics }.toMap
+
   /**
    * Retrieves a JDBC connection, with auto-commit set to `true`.
    *
@@ -431,11 +514,17 @@ private[db] class BoneCPApi(configuration: Configuration, classloader: ClassLoad
 
 /**
  * A connection releasing automatically statements on close
+ *
+ * @param statementCache the cache of the prepared statements of the underlying connection, if enabled
  */
-private class AutoCleanConnection(connection: Connection) extends Connection {
+private class AutoCleanConnection(connection: Connection, statementCache: Option[StatementCache] = None) extends Connection {
 
   private val statements = scala.collection.mutable.ListBuffer.empty[Statement]
 
+  private def caching(sql: String, autoGeneratedKeys: Int)(prepare: => PreparedStatement): PreparedStatement = {
+    registering(statementCache.map(_.prepare(sql, autoGeneratedKeys)(prepare)).getOrElse(prepare))
+  }
+
   private def registering[T <: Statement](b: => T) = {
     val statement = b
     statements += statement
@@ -452,8 +541,8 @@ private class AutoCleanConnection(connection: Connection) extends Connection {
   def createStatement() = registering(connection.createStatement())
   def createStatement(resultSetType: Int, resultSetConcurrency: Int) = registering(connection.createStatement(resultSetType, resultSetConcurrency))
   def createStatement(resultSetType: Int, resultSetConcurrency: Int, resultSetHoldability: Int) = registering(connection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability))
-  def prepareStatement(sql: String) = registering(connection.prepareStatement(sql))
-  def prepareStatement(sql: String, autoGeneratedKeys: Int) = registering(connection.prepareStatement(sql, autoGeneratedKeys))
+  def prepareStatement(sql: String) = caching(sql, Statement.NO_GENERATED_KEYS)(connection.prepareStatement(sql))
+  def prepareStatement(sql: String, autoGeneratedKeys: Int) = caching(sql, autoGeneratedKeys)(connection.prepareStatement(sql, autoGeneratedKeys))
   def prepareStatement(sql: String, columnIndexes: scala.Array[Int]) = registering(connection.prepareStatement(sql, columnIndexes))
   def prepareStatement(sql: String, resultSetType: Int, resultSetConcurrency: Int) = registering(connection.prepareStatement(sql, resultSetType, resultSetConcurrency))
   def prepareStatement(sql: String, resultSetType: Int, resultSetConcurrency: Int, resultSetHoldability: Int) = registering(connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability))
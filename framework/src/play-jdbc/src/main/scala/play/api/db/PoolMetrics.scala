@@ -0,0 +1,174 @@
+package play.api.db
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.{ AtomicInteger, AtomicLong, AtomicLongArray }
+import scala.collection.JavaConverters._
+
+/**
+ * Connection pool metrics of a data source.
+ *
+ * @param active the number of connections in use
+ * @param idle the number of open connections available in the pool
+ * @param pending the number of threads waiting for a connection, as no connection was idle when they asked for one
+ * @param checkouts the number of connections obtained from the pool
+ * @param checkoutTime the number of checkouts by duration: each upper bound, in milliseconds, with the number of
+ *   checkouts that took longer than the previous bound and at most this bound
+ * @param longHeld the connections held longer than the leak detection threshold, if it is configured
+ * @param statementCacheHits the number of prepared statements reused from the statement cache, if it is configured
+ * @param statementCacheMisses the number of prepared statements created while the statement cache was enabled
+ */
+case class PoolMetrics(
+    active: Int,
+    idle: Int,
+    pending: Int,
+    checkouts: Long,
+    checkoutTime: Seq[(Long, Long)],
+    longHeld: Seq[HeldConnection],
+    statementCacheHits: Long,
+    statementCacheMisses: Long) {
+
+  /**
+   * The ratio of prepared statements reused from the statement cache.
+   */
+  def statementCacheHitRatio: Double = PoolMonitor.ratio(statementCacheHits, statementCacheMisses)
+
+}
+
+/**
+ * A connection held longer than the leak detection threshold.
+ *
+ * @param heldFor how long the connection has been held, in milliseconds
+ * @param checkout the stack trace of the code that obtained the connection
+ */
+case class HeldConnection(heldFor: Long, checkout: Seq[StackTraceElement])
+
+/**
+ * The JMX interface of the connection pool metrics.
+ */
+trait PoolMonitorMBean {
+  def getActive: Int
+  def getIdle: Int
+  def getPending: Int
+  def getCheckouts: Long
+  def getCheckoutTime: Array[String]
+  def getLongHeld: Array[String]
+  def getStatementCacheHitRatio: Double
+}
+
+/**
+ * Records the connection pool metrics of a data source.
+ *
+ * @param leakThreshold how long, in milliseconds, a connection may be held before it is reported in `longHeld`. The
+ *   stack trace of each checkout is only recorded when it is set.
+ */
+class PoolMonitor private[db] (leakThreshold: Option[Long]) extends PoolMonitorMBean {
+
+  private val open = new AtomicInteger
+  private val active = new AtomicInteger
+  private val pending = new AtomicInteger
+  private val checkouts = new AtomicLong
+  private val checkoutTimes = new AtomicLongArray(PoolMonitor.Bounds.size)
+  private val held = new ConcurrentHashMap[AnyRef, (Long, Array[StackTraceElement])]
+  private val statementCacheHits = new AtomicLong
+  private val statementCacheMisses = new AtomicLong
+
+  private[db] def acquired() {
+    open.incrementAndGet()
+  }
+
+  private[db] def destroyed() {
+    open.decrementAndGet()
+  }
+
+  /**
+   * Obtains a connection, counting the waiting threads and the checkout time.
+   *
+   * A thread is counted as waiting when no connection is idle, so that it has to wait for a connection to be opened or
+   * to be checked in.
+   */
+  private[db] def checkingOut[A](checkout: => A): A = {
+    val start = System.nanoTime
+    val waiting = idle == 0
+    if (waiting) pending.incrementAndGet()
+    try {
+      checkout
+    } finally {
+      if (waiting) pending.decrementAndGet()
+      val millis = (System.nanoTime - start) / 1000000
+      checkoutTimes.incrementAndGet(PoolMonitor.Bounds.indexWhere(millis <= _))
+      checkouts.incrementAndGet()
+    }
+  }
+
+  private[db] def checkedOut(connection: AnyRef) {
+    active.incrementAndGet()
+    leakThreshold.foreach { _ =>
+      held.put(connection, (System.currentTimeMillis, new Throwable().getStackTrace))
+    }
+  }
+
+  private[db] def checkedIn(connection: AnyRef) {
+    active.decrementAndGet()
+    leakThreshold.foreach(_ => held.remove(connection))
+  }
+
+  private[db] def statementCacheHit() {
+    statementCacheHits.incrementAndGet()
+  }
+
+  private[db] def statementCacheMiss() {
+    statementCacheMisses.incrementAndGet()
+  }
+
+  private def idle: Int = math.max(open.get - active.get, 0)
+
+  private def checkoutTime: Seq[(Long, Long)] = PoolMonitor.Bounds.zipWithIndex.map { case (bound, i) => bound -> checkoutTimes.get(i) }
+
+  private def longHeld: Seq[HeldConnection] = {
+    val now = System.currentTimeMillis
+    leakThreshold.toSeq.flatMap { threshold =>
+      held.values.asScala.toSeq.collect {
+        case (since, trace) if now - since > threshold => HeldConnection(now - since, trace.toSeq)
+      }
+    }.sortBy(-_.heldFor)
+  }
+
+  def metrics: PoolMetrics = PoolMetrics(
+    active.get,
+    idle,
+    pending.get,
+    checkouts.get,
+    checkoutTime,
+    longHeld,
+    statementCacheHits.get,
+    statementCacheMisses.get)
+
+  // Each attribute only reads the counters it needs
+
+  def getActive = active.get
+  def getIdle = idle
+  def getPending = pending.get
+  def getCheckouts = checkouts.get
+
+  def getCheckoutTime = checkoutTime.map {
+    case (bound, count) => (if (bound == Long.MaxValue) "more" else "<= " + bound + "ms") + ": " + count
+  }.toArray
+
+  def getStatementCacheHitRatio = PoolMonitor.ratio(statementCacheHits.get, statementCacheMisses.get)
+
+  def getLongHeld = longHeld.map { connection =>
+    "Held for " + connection.heldFor + "ms, obtained at\n" + connection.checkout.map("\tat " + _).mkString("\n")
+  }.toArray
+
+}
+
+private[db] object PoolMonitor {
+
+  /**
+   * The upper bounds of the checkout time buckets, in milliseconds.
+   */
+  val Bounds = Seq(1L, 5L, 10L, 50L, 100L, 500L, 1000L, 5000L, Long.MaxValue)
+
+  def ratio(hits: Long, misses: Long): Double = if (hits + misses == 0) 0 else hits.toDouble / (hits + misses)
+
+}
@@ -0,0 +1,201 @@
+package play.api.db
+
+import scala.language.reflectiveCalls
+
+import java.sql._
+import scala.collection.JavaConverters._
+import scala.util.control.NonFatal
+
+/**
+ * The prepared statements of a physical connection, kept open across the `withConnection` blocks using it.
+ *
+ * A statement is taken out of the cache while it is used, so that it is never shared, and put back when it is closed
+ * or its connection is released. The least recently used statements are closed beyond `capacity`.
+ *
+ * @param capacity the largest number of statements kept open
+ * @param monitor records the cache hits and misses
+ */
+private[db] class StatementCache(capacity: Int, monitor: PoolMonitor) {
+
+  private val statements = new java.util.LinkedHashMap[(String, Int), PreparedStatement](16, 0.75f, true)
+
+  /**
+   * A cached statement for the query, or a new one.
+   */
+  def prepare(sql: String, autoGeneratedKeys: Int)(create: => PreparedStatement): CachedStatement = {
+    val cached = synchronized(Option(statements.remove(sql -> autoGeneratedKeys)))
+    cached.foreach(_ => monitor.statementCacheHit())
+    val statement = cached.getOrElse {
+      monitor.statementCacheMiss()
+      create
+    }
+    new CachedStatement(statement, release(sql -> autoGeneratedKeys, _))
+  }
+
+  private def release(key: (String, Int), statement: PreparedStatement) {
+    val reusable = !statement.isClosed && (try {
+      statement.clearParameters()
+      statement.clearBatch()
+      statement.setQueryTimeout(0)
+      statement.setMaxRows(0)
+      statement.setFetchSize(0)
+      Option(statement.getResultSet).foreach(_.close())
+      true
+    } catch {
+      case NonFatal(_) => false
+    })
+    if (!reusable) close(statement)
+    else synchronized {
+      Option(statements.put(key, statement)).foreach(close)
+      if (statements.size > capacity) {
+        val eldest = statements.values.iterator
+        close(eldest.next())
+        eldest.remove()
+      }
+    }
+  }
+
+  /**
+   * Closes all cached statements.
+   */
+  def close() {
+    val all = synchronized {
+      val all = statements.values.asScala.toList
+      statements.clear()
+      all
+    }
+    all.foreach(close)
+  }
+
+  private def close(statement: PreparedStatement) {
+    try {
+      statement.close()
+    } catch {
+      case NonFatal(_) =>
+    }
+  }
+
+}
+
+/**
+ * A prepared statement given back to its cache when it is closed, instead of being closed.
+ */
+private[db] class CachedStatement(statement: PreparedStatement, release: PreparedStatement => Unit) extends PreparedStatement {
+
+  @volatile private var closed = false
+
+  def close() {
+    if (!closed) {
+      closed = true
+      release(statement)
+    }
+  }
+
+  def isClosed() = closed || statement.isClosed()
+
+  def addBatch() { statement.addBatch() }
+  def addBatch(sql: String) { statement.addBatch(sql) }
+  def cancel() { statement.cancel() }
+  def clearBatch() { statement.clearBatch() }
+  def clearParameters() { statement.clearParameters() }
+  def clearWarnings() { statement.clearWarnings() }
+  def execute() = statement.execute()
+  def execute(sql: String) = statement.execute(sql)
+  def execute(sql: String, autoGeneratedKeys: Int) = statement.execute(sql, autoGeneratedKeys)
+  def execute(sql: String, columnIndexes: scala.Array[Int]) = statement.execute(sql, columnIndexes)
+  def execute(sql: String, columnNames: scala.Array[String]) = statement.execute(sql, columnNames)
+  def executeBatch() = statement.executeBatch()
+  def executeQuery() = statement.executeQuery()
+  def executeQuery(sql: String) = statement.executeQuery(sql)
+  def executeUpdate() = statement.executeUpdate()
+  def executeUpdate(sql: String) = statement.executeUpdate(sql)
+  def executeUpdate(sql: String, autoGeneratedKeys: Int) = statement.executeUpdate(sql, autoGeneratedKeys)
+  def executeUpdate(sql: String, columnIndexes: scala.Array[Int]) = statement.executeUpdate(sql, columnIndexes)
+  def executeUpdate(sql: String, columnNames: scala.Array[String]) = statement.executeUpdate(sql, columnNames)
+  def getConnection() = statement.getConnection()
+  def getFetchDirection() = statement.getFetchDirection()
+  def getFetchSize() = statement.getFetchSize()
+  def getGeneratedKeys() = statement.getGeneratedKeys()
+  def getMaxFieldSize() = statement.getMaxFieldSize()
+  def getMaxRows() = statement.getMaxRows()
+  def getMetaData() = statement.getMetaData()
+  def getMoreResults() = statement.getMoreResults()
+  def getMoreResults(current: Int) = statement.getMoreResults(current)
+  def getParameterMetaData() = statement.getParameterMetaData()
+  def getQueryTimeout() = statement.getQueryTimeout()
+  def getResultSet() = statement.getResultSet()
+  def getResultSetConcurrency() = statement.getResultSetConcurrency()
+  def getResultSetHoldability() = statement.getResultSetHoldability()
+  def getResultSetType() = statement.getResultSetType()
+  def getUpdateCount() = statement.getUpdateCount()
+  def getWarnings() = statement.getWarnings()
+  def isPoolable() = statement.isPoolable()
+  def setArray(index: Int, x: java.sql.Array) { statement.setArray(index, x) }
+  def setAsciiStream(index: Int, x: java.io.InputStream) { statement.setAsciiStream(index, x) }
+  def setAsciiStream(index: Int, x: java.io.InputStream, length: Int) { statement.setAsciiStream(index, x, length) }
+  def setAsciiStream(index: Int, x: java.io.InputStream, length: Long) { statement.setAsciiStream(index, x, length) }
+  def setBigDecimal(index: Int, x: java.math.BigDecimal) { statement.setBigDecimal(index, x) }
+  def setBinaryStream(index: Int, x: java.io.InputStream) { statement.setBinaryStream(index, x) }
+  def setBinaryStream(index: Int, x: java.io.InputStream, length: Int) { statement.setBinaryStream(index, x, length) }
+  def setBinaryStream(index: Int, x: java.io.InputStream, length: Long) { statement.setBinaryStream(index, x, length) }
+  def setBlob(index: Int, x: Blob) { statement.setBlob(index, x) }
+  def setBlob(index: Int, x: java.io.InputStream) { statement.setBlob(index, x) }
+  def setBlob(index: Int, x: java.io.InputStream, length: Long) { statement.setBlob(index, x, length) }
+  def setBoolean(index: Int, x: Boolean) { statement.setBoolean(index, x) }
+  def setByte(index: Int, x: Byte) { statement.setByte(index, x) }
+  def setBytes(index: Int, x: scala.Array[Byte]) { statement.setBytes(index, x) }
+  def setCharacterStream(index: Int, x: java.io.Reader) { statement.setCharacterStream(index, x) }
+  def setCharacterStream(index: Int, x: java.io.Reader, length: Int) { statement.setCharacterStream(index, x, length) }
+  def setCharacterStream(index: Int, x: java.io.Reader, length: Long) { statement.setCharacterStream(index, x, length) }
+  def setClob(index: Int, x: Clob) { statement.setClob(index, x) }
+  def setClob(index: Int, x: java.io.Reader) { statement.setClob(index, x) }
+  def setClob(index: Int, x: java.io.Reader, length: Long) { statement.setClob(index, x, length) }
+  def setCursorName(name: String) { statement.setCursorName(name) }
+  def setDate(index: Int, x: Date) { statement.setDate(index, x) }
+  def setDate(index: Int, x: Date, calendar: java.util.Calendar) { statement.setDate(index, x, calendar) }
+  def setDouble(index: Int, x: Double) { statement.setDouble(index, x) }
+  def setEscapeProcessing(enable: Boolean) { statement.setEscapeProcessing(enable) }
+  def setFetchDirection(direction: Int) { statement.setFetchDirection(direction) }
+  def setFetchSize(rows: Int) { statement.setFetchSize(rows) }
+  def setFloat(index: Int, x: Float) { statement.setFloat(index, x) }
+  def setInt(index: Int, x: Int) { statement.setInt(index, x) }
+  def setLong(index: Int, x: Long) { statement.setLong(index, x) }
+  def setMaxFieldSize(max: Int) { statement.setMaxFieldSize(max) }
+  def setMaxRows(max: Int) { statement.setMaxRows(max) }
+  def setNCharacterStream(index: Int, x: java.io.Reader) { statement.setNCharacterStream(index, x) }
+  def setNCharacterStream(index: Int, x: java.io.Reader, length: Long) { statement.setNCharacterStream(index, x, length) }
+  def setNClob(index: Int, x: NClob) { statement.setNClob(index, x) }
+  def setNClob(index: Int, x: java.io.Reader) { statement.setNClob(index, x) }
+  def setNClob(index: Int, x: java.io.Reader, length: Long) { statement.setNClob(index, x, length) }
+  def setNString(index: Int, x: String) { statement.setNString(index, x) }
+  def setNull(index: Int, sqlType: Int) { statement.setNull(index, sqlType) }
+  def setNull(index: Int, sqlType: Int, typeName: String) { statement.setNull(index, sqlType, typeName) }
+  def setObject(index: Int, x: AnyRef) { statement.setObject(index, x) }
+  def setObject(index: Int, x: AnyRef, targetSqlType: Int) { statement.setObject(index, x, targetSqlType) }
+  def setObject(index: Int, x: AnyRef, targetSqlType: Int, scaleOrLength: Int) { statement.setObject(index, x, targetSqlType, scaleOrLength) }
+  def setPoolable(poolable: Boolean) { statement.setPoolable(poolable) }
+  def setQueryTimeout(seconds: Int) { statement.setQueryTimeout(seconds) }
+  def setRef(index: Int, x: Ref) { statement.setRef(index, x) }
+  def setRowId(index: Int, x: RowId) { statement.setRowId(index, x) }
+  def setShort(index: Int, x: Short) { statement.setShort(index, x) }
+  def setSQLXML(index: Int, x: SQLXML) { statement.setSQLXML(index, x) }
+  def setString(index: Int, x: String) { statement.setString(index, x) }
+  def setTime(index: Int, x: Time) { statement.setTime(index, x) }
+  def setTime(index: Int, x: Time, calendar: java.util.Calendar) { statement.setTime(index, x, calendar) }
+  def setTimestamp(index: Int, x: Timestamp) { statement.setTimestamp(index, x) }
+  def setTimestamp(index: Int, x: Timestamp, calendar: java.util.Calendar) { statement.setTimestamp(index, x, calendar) }
+  def setURL(index: Int, x: java.net.URL) { statement.setURL(index, x) }
+  def setUnicodeStream(index: Int, x: java.io.InputStream, length: Int) { statement.setUnicodeStream(index, x, length) }
+  def isWrapperFor(iface: Class[_]) = statement.isWrapperFor(iface)
+  def unwrap[T](iface: Class[T]) = statement.unwrap(iface)
+
+  // JDBC 4.1
+  def closeOnCompletion() {
+    statement.asInstanceOf[{ def closeOnCompletion(): Unit }].closeOnCompletion()
+  }
+
+  def isCloseOnCompletion() = {
+    statement.asInstanceOf[{ def isCloseOnCompletion(): Boolean }].isCloseOnCompletion()
+  }
+
+}
@@ -0,0 +1,65 @@
+package play.api.db
+
+import org.specs2.mutable.Specification
+
+object PoolMetricsSpec extends Specification {
+
+  "PoolMonitor" should {
+
+    "count active and idle connections" in {
+      val monitor = new PoolMonitor(None)
+      val (first, second) = (new Object, new Object)
+      monitor.acquired()
+      monitor.acquired()
+      monitor.acquired()
+      monitor.checkingOut(monitor.checkedOut(first))
+      monitor.checkingOut(monitor.checkedOut(second))
+      monitor.checkedIn(first)
+      val metrics = monitor.metrics
+      metrics.active must_== 1
+      metrics.idle must_== 2
+      metrics.pending must_== 0
+      metrics.checkouts must_== 2
+    }
+
+    "record checkout times" in {
+      val monitor = new PoolMonitor(None)
+      monitor.checkingOut(Thread.sleep(20))
+      val buckets = monitor.metrics.checkoutTime.collect { case (bound, 1) => bound }
+      buckets.size must_== 1
+      buckets.head must be_>=(20L)
+    }
+
+    "count checkouts waiting for a connection" in {
+      val monitor = new PoolMonitor(None)
+      monitor.checkingOut(monitor.metrics.pending) must_== 1
+      monitor.getPending must_== 0
+    }
+
+    "not count checkouts of idle connections as waiting" in {
+      val monitor = new PoolMonitor(None)
+      monitor.acquired()
+      monitor.checkingOut(monitor.getPending) must_== 0
+    }
+
+    "report connections held longer than the threshold" in {
+      val monitor = new PoolMonitor(Some(10))
+      val (first, second) = (new Object, new Object)
+      monitor.checkedOut(first)
+      monitor.checkedOut(second)
+      monitor.checkedIn(second)
+      Thread.sleep(20)
+      val longHeld = monitor.metrics.longHeld
+      longHeld.size must_== 1
+      longHeld.head.heldFor must be_>=(10L)
+      longHeld.head.checkout.map(_.getClassName).exists(_.startsWith("play.api.db.PoolMetricsSpec")) must beTrue
+    }
+
+    "not record checkouts without threshold" in {
+      val monitor = new PoolMonitor(None)
+      monitor.checkedOut(new Object)
+      monitor.metrics.longHeld must beEmpty
+    }
+  }
+
+}
@@ -0,0 +1,94 @@
+package play.api.db
+
+import org.specs2.mutable.Specification
+
+import java.sql.{ Connection, DriverManager }
+
+object StatementCacheSpec extends Specification {
+
+  "StatementCache" should {
+
+    "reuse the prepared statements of a connection" in withConnection { connection =>
+      val monitor = new PoolMonitor(None)
+      val cache = new StatementCache(10, monitor)
+      query(connection, cache, "SELECT 1") must_== 1
+      query(connection, cache, "SELECT 1") must_== 1
+      query(connection, cache, "SELECT 2") must_== 2
+      monitor.metrics.statementCacheHits must_== 1
+      monitor.metrics.statementCacheMisses must_== 2
+    }
+
+    "not share a statement used twice at the same time" in withConnection { connection =>
+      val monitor = new PoolMonitor(None)
+      val cache = new StatementCache(10, monitor)
+      val autoClean = new AutoCleanConnection(connection, Some(cache))
+      val first = autoClean.prepareStatement("SELECT 1")
+      val second = autoClean.prepareStatement("SELECT 1")
+      first.close()
+      first.isClosed must beTrue
+      second.isClosed must beFalse
+      second.executeQuery().next() must beTrue
+      autoClean.close()
+      monitor.metrics.statementCacheMisses must_== 2
+    }
+
+    "clear the parameters of reused statements" in withConnection { connection =>
+      val cache = new StatementCache(10, new PoolMonitor(None))
+      val autoClean = new AutoCleanConnection(connection, Some(cache))
+      val statement = autoClean.prepareStatement("SELECT ?")
+      statement.setInt(1, 42)
+      autoClean.close()
+      val reused = new AutoCleanConnection(connection, Some(cache)).prepareStatement("SELECT ?")
+      reused.executeQuery() must throwA[java.sql.SQLException]
+    }
+
+    "reset the settings of reused statements" in withConnection { connection =>
+      val cache = new StatementCache(10, new PoolMonitor(None))
+      val autoClean = new AutoCleanConnection(connection, Some(cache))
+      val statement = autoClean.prepareStatement("SELECT 1")
+      val defaultFetchSize = statement.getFetchSize
+      statement.setFetchSize(defaultFetchSize + 7)
+      statement.setMaxRows(3)
+      statement.setQueryTimeout(5)
+      autoClean.close()
+      val reused = new AutoCleanConnection(connection, Some(cache)).prepareStatement("SELECT 1")
+      reused.getFetchSize must_== defaultFetchSize
+      reused.getMaxRows must_== 0
+      reused.getQueryTimeout must_== 0
+    }
+
+    "close the least recently used statements beyond its capacity" in withConnection { connection =>
+      val monitor = new PoolMonitor(None)
+      val cache = new StatementCache(2, monitor)
+      Seq(1, 2, 3, 1).map(i => query(connection, cache, "SELECT " + i)) must_== Seq(1, 2, 3, 1)
+      monitor.metrics.statementCacheHits must_== 0
+      query(connection, cache, "SELECT 3") must_== 3
+      monitor.metrics.statementCacheHits must_== 1
+    }
+  }
+
+  def query(connection: Connection, cache: StatementCache, sql: String): Int = {
+    val autoClean = new AutoCleanConnection(connection, Some(cache))
+    try {
+      val resultSet = autoClean.prepareStatement(sql).executeQuery()
+      resultSet.next()
+      resultSet.getInt(1)
+    } finally {
+      autoClean.close()
+    }
+  }
+
+  def withConnection[A](block: Connection => A): A = {
+    Class.forName("org.h2.Driver")
+    val connection = DriverManager.getConnection("jdbc:h2:mem:statementcache")
+    try {
+      // Keeps the connection open when the connections wrapping it are closed, as a pool does
+      block(new AutoCleanConnection(connection) {
+        override def close() {}
+      })
+    } finally {
+      connection.close()
+    }
+  }
+
+}
@@ -1,14 +1,112 @@
 package play.libs;
 
+import java.io.OutputStream;
+import java.util.Map;
+
 import org.codehaus.jackson.*;
 import org.codehaus.jackson.map.*;
 import org.codehaus.jackson.node.*;
 
+import play.Configuration;
+
 /**
  * Helper functions to handle JsonNode values.
  */
 public class Json {
 
+    private static volatile ObjectMapper objectMapper = null;
+
+    private static volatile ConfiguredMapper configuredMapper = null;
+
+    /**
+     * The default object mapper, configured for an application.
+     */
+    private static class ConfiguredMapper {
+        final play.api.Application application;
+        final ObjectMapper mapper;
+
+        ConfiguredMapper(play.api.Application application, ObjectMapper mapper) {
+            this.application = application;
+            this.mapper = mapper;
+        }
+    }
+
+    /**
+     * The object mapper shared by the application.
+     *
+     * It is thread safe, and caches the serializers of the classes it has already handled, so it should be used
+     * instead of a new ObjectMapper.
+     *
+     * Unless it is replaced by <code>setObjectMapper</code>, it is configured from the <code>json</code> section of
+     * the application configuration:
+     * <pre>
+     * json.modules = ["com.example.MyModule"]
+     * json.serialization.INDENT_OUTPUT = true
+     * json.deserialization.FAIL_ON_UNKNOWN_PROPERTIES = false
+     * </pre>
+     */
+    public static ObjectMapper mapper() {
+        ObjectMapper mapper = objectMapper;
+        if(mapper != null) {
+            return mapper;
+        }
+        play.api.Application application = Scala.orNull(play.api.Play.maybeApplication());
+        ConfiguredMapper configured = configuredMapper;
+        if(configured == null || configured.application != application) {
+            configured = new ConfiguredMapper(application, newDefaultMapper(application));
+            configuredMapper = configured;
+        }
+        return configured.mapper;
+    }
+
+    /**
+     * Replaces the object mapper shared by the application, typically from <code>GlobalSettings.onStart</code>.
+     *
+     * @param mapper the new object mapper, or null to use the mapper configured for the application
+     */
+    public static void setObjectMapper(ObjectMapper mapper) {
+        objectMapper = mapper;
+    }
+
+    /**
+     * Creates an object mapper configured from the <code>json</code> section of the application configuration.
+     */
+    private static ObjectMapper newDefaultMapper(play.api.Application application) {
+        ObjectMapper mapper = new ObjectMapper();
+        if(application == null) {
+            return mapper;
+        }
+        Configuration configuration = new Configuration(application.configuration());
+        for(String module: configuration.getStringList("json.modules", new java.util.ArrayList<String>())) {
+            try {
+                mapper.registerModule((org.codehaus.jackson.map.Module)application.classloader().loadClass(module).newInstance());
+            } catch(Exception e) {
+                throw configuration.reportError("json.modules", "Cannot load Jackson module " + module, e);
+            }
+        }
+        Configuration serialization = configuration.getConfig("json.serialization");
+        if(serialization != null) {
+            for(Map.Entry<String, Object> feature: serialization.asMap().entrySet()) {
+                try {
+                    mapper.configure(SerializationConfig.Feature.valueOf(feature.getKey()), (Boolean)feature.getValue());
+                } catch(Exception e) {
+                    throw configuration.reportError("json.serialization." + feature.getKey(), "Invalid serialization feature", e);
+                }
+            }
+        }
+        Configuration deserialization = configuration.getConfig("json.deserialization");
+        if(deserialization != null) {
+            for(Map.Entry<String, Object> feature: deserialization.asMap().entrySet()) {
+                try {
+                    mapper.configure(DeserializationConfig.Feature.valueOf(feature.getKey()), (Boolean)feature.getValue());
+                } catch(Exception e) {
+                    throw configuration.reportError("json.deserialization." + feature.getKey(), "Invalid deserialization feature", e);
+                }
+            }
+        }
+        return mapper;
+    }
+
     /**
      * Convert an object to JsonNode.
      *
@@ -16,7 +114,7 @@ public class Json {
      */
     public static JsonNode toJson(final Object data) {
         try {
-            return new ObjectMapper().valueToTree(data);
+            return mapper().valueToTree(data);
         } catch(Exception e) {
             throw new RuntimeException(e);
         }
@@ -30,7 +128,7 @@ public class Json {
      */
     public static <A> A fromJson(JsonNode json, Class<A> clazz) {
         try {
-            return new ObjectMapper().treeToValue(json, clazz);
+            return mapper().treeToValue(json, clazz);
         } catch(Exception e) {
             throw new RuntimeException(e);
         }
@@ -38,9 +136,9 @@ public class Json {
 
     /**
      * Creates a new empty ObjectNode.
-     */ 
+     */
     public static ObjectNode newObject() {
-        return new ObjectMapper().createObjectNode();
+        return mapper().createObjectNode();
     }
 
     /**
@@ -55,10 +153,40 @@ public class Json {
      */
     public static JsonNode parse(String src) {
         try {
-            return new ObjectMapper().readValue(src, JsonNode.class);
+            return mapper().readValue(src, JsonNode.class);
         } catch(Throwable t) {
             throw new RuntimeException(t);
         }
     }
 
+    /**
+     * Serializes an object to UTF-8 encoded Json, without building a JsonNode.
+     *
+     * @param data Value to serialize.
+     */
+    public static byte[] toBytes(Object data) {
+        try {
+            return mapper().writeValueAsBytes(data);
+        } catch(Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Serializes an object as UTF-8 encoded Json to a stream, without building a JsonNode.
+     *
+     * @param data Value to serialize.
+     * @param out The stream to write to, which is not closed.
+     */
+    public static void writeTo(Object data, OutputStream out) {
+        try {
+            JsonGenerator generator = mapper().getJsonFactory().createJsonGenerator(out, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            mapper().writeValue(generator, data);
+            generator.close();
+        } catch(Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 }
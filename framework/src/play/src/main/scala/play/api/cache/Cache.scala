@@ -4,6 +4,11 @@ import play.api._
 
 import reflect.{ClassTag, ClassManifest}
 import org.apache.commons.lang3.reflect.TypeUtils
+import scala.concurrent.{ Await, Future, Promise }
+import scala.concurrent.duration._
+import scala.util.Try
+import scala.util.control.NonFatal
+
 /**
  * API for a Cache plugin.
  */
@@ -29,6 +34,169 @@ trait CacheAPI {
    * Remove a value from the cache
    */
   def remove(key: String)
+
+  /**
+   * Retrieve several values from the cache.
+   *
+   * Implementations should override it to retrieve all the values at once.
+   *
+   * @param keys Item keys.
+   * @return the values found, by key
+   */
+  def getAll(keys: Seq[String]): Map[String, Any] = {
+    keys.flatMap(key => get(key).map(key -> _)).toMap
+  }
+
+  /**
+   * Set several values into the cache.
+   *
+   * Implementations should override it to set all the values at once.
+   *
+   * @param values Item values, by key.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   */
+  def setAll(values: Map[String, Any], expiration: Int) {
+    values.foreach { case (key, value) => set(key, value, expiration) }
+  }
+
+  /**
+   * Remove several values from the cache.
+   *
+   * Implementations should override it to remove all the values at once.
+   */
+  def removeAll(keys: Seq[String]) {
+    keys.foreach(remove)
+  }
+
+  /**
+   * Retrieve a value from the cache, without blocking.
+   *
+   * By default, the value is retrieved by the calling thread. Remote cache implementations should override the
+   * asynchronous operations to pipeline their requests.
+   *
+   * @param key Item key.
+   */
+  def getAsync(key: String): Future[Option[Any]] = eventually(get(key))
+
+  /**
+   * Set a value into the cache, without blocking.
+   *
+   * @param key Item key.
+   * @param value Item value.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   */
+  def setAsync(key: String, value: Any, expiration: Int): Future[Unit] = eventually(set(key, value, expiration))
+
+  /**
+   * Remove a value from the cache, without blocking.
+   */
+  def removeAsync(key: String): Future[Unit] = eventually(remove(key))
+
+  /**
+   * Retrieve several values from the cache, without blocking.
+   *
+   * @param keys Item keys.
+   * @return the values found, by key
+   */
+  def getAllAsync(keys: Seq[String]): Future[Map[String, Any]] = eventually(getAll(keys))
+
+  /**
+   * Set several values into the cache, without blocking.
+   *
+   * @param values Item values, by key.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   */
+  def setAllAsync(values: Map[String, Any], expiration: Int): Future[Unit] = eventually(setAll(values, expiration))
+
+  /**
+   * Remove several values from the cache, without blocking.
+   */
+  def removeAllAsync(keys: Seq[String]): Future[Unit] = eventually(removeAll(keys))
+
+  /**
+   * Retrieve a value from the cache, or load it and set it into the cache when it is missing.
+   *
+   * Only one caller per key loads the value at a time: the concurrent callers get the same `Future` instead of
+   * loading the value again. The default implementation only coordinates the callers of this JVM.
+   *
+   * @param key Item key.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   * @param load Loads the value when it is missing.
+   */
+  def getOrElseAsync(key: String, expiration: Int)(load: => Future[Any]): Future[Any] = {
+    get(key).map(Future.successful).getOrElse {
+      singleFlight(key)(load)((value, _) => set(key, value, expiration))
+    }
+  }
+
+  /**
+   * Atomically add a number to a value, or set it to `initial` if it is missing or is not a number.
+   *
+   * The default implementation is only atomic with respect to the other atomic operations of this JVM, and sets the
+   * expiration again whenever the value is updated.
+   *
+   * @param key Item key.
+   * @param delta The number to add, which may be negative.
+   * @param initial The value of a missing key.
+   * @param expiration Expiration time in seconds (0 second means eternity) of a missing key.
+   * @return the new value
+   */
+  def incr(key: String, delta: Long, initial: Long, expiration: Int): Long = atomically(key) {
+    val value = get(key).collect { case n: java.lang.Number => n.longValue + delta }.getOrElse(initial)
+    set(key, value, expiration)
+    value
+  }
+
+  /**
+   * Atomically set a value into the cache, unless a value is already set.
+   *
+   * The default implementation is only atomic with respect to the other atomic operations of this JVM.
+   *
+   * @param key Item key.
+   * @param value Item value.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   * @return the value already set, or None if the value was set
+   */
+  def putIfAbsent(key: String, value: Any, expiration: Int): Option[Any] = atomically(key) {
+    get(key).orElse {
+      set(key, value, expiration)
+      None
+    }
+  }
+
+  /**
+   * Atomically replace a value in the cache, if it is equal to the expected value.
+   *
+   * The default implementation is only atomic with respect to the other atomic operations of this JVM.
+   *
+   * @param key Item key.
+   * @param expected The value that must be set.
+   * @param value The new value.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   * @return whether the value was replaced
+   */
+  def replace(key: String, expected: Any, value: Any, expiration: Int): Boolean = atomically(key) {
+    get(key).exists(_ == expected) && {
+      set(key, value, expiration)
+      true
+    }
+  }
+
+  private[cache] lazy val singleFlight = new SingleFlight
+
+  private[cache] lazy val locks = Array.fill(64)(new Object)
+
+  private def atomically[A](key: String)(operation: => A): A = {
+    locks((key.hashCode & Int.MaxValue) % locks.length).synchronized(operation)
+  }
+
+  private def eventually[A](operation: => A): Future[A] = {
+    try {
+      Future.successful(operation)
+    } catch {
+      case NonFatal(e) => Future.failed(e)
+    }
+  }
 }
 
 /**
@@ -38,13 +206,35 @@ trait CacheAPI {
  */
 object Cache {
 
-  private def cacheAPI(implicit app: Application): CacheAPI = {
+  private def cachePlugin(implicit app: Application): CachePlugin = {
     app.plugin[CachePlugin] match {
-      case Some(plugin) => plugin.api
+      case Some(plugin) => plugin
       case None => throw new Exception("There is no cache plugin registered. Make sure at least one CachePlugin implementation is enabled.")
     }
   }
 
+  private def cacheAPI(implicit app: Application): CacheAPI = cachePlugin.api
+
+  /**
+   * The cache region with the given name.
+   *
+   * {{{
+   * Cache.region("users").set("user.42", user, 0)
+   * }}}
+   *
+   * @param name Region name.
+   */
+  def region(name: String)(implicit app: Application): CacheAPI = {
+    cachePlugin.region(name)
+  }
+
+  /**
+   * Statistics of each cache region.
+   */
+  def stats(implicit app: Application): Map[String, CacheStats] = {
+    cachePlugin.stats
+  }
+
   /**
    * Sets a value without expiration
    *
@@ -68,18 +258,85 @@ object Cache {
   /**
    * Retrieve a value from the cache, or set it from a default function.
    *
+   * When the value is missing, only one caller per key invokes the default function, while the concurrent callers
+   * wait for its value, for up to `cache.loadTimeout` (10 seconds by default). A caller that waits longer, or that
+   * loads the same value reentrantly, invokes the default function itself.
+   *
    * @param key Item key.
    * @param expiration expiration period in seconds.
    * @param orElse The default function to invoke if the value was found in cache.
    */
   def getOrElse[A](key: String, expiration: Int = 0)(orElse: => A)(implicit app: Application, ct: ClassTag[A]): A = {
-    getAs[A](key).getOrElse {
+    val value = getOrLoad(cacheAPI, key, expiration, loadTimeout)(orElse)
+    if (TypeUtils.isInstance(value, ct.runtimeClass)) value.asInstanceOf[A] else {
       val value = orElse
       set(key, value, expiration)
       value
     }
   }
 
+  /**
+   * How long `getOrElse` waits for another caller loading the same value.
+   *
+   * {{{
+   * cache.loadTimeout=10s
+   * }}}
+   */
+  private def loadTimeout(implicit app: Application): Duration = {
+    app.configuration.getMilliseconds("cache.loadTimeout").getOrElse(10000L).millis
+  }
+
+  /**
+   * The keys loaded by the current thread, with the API they are loaded into.
+   */
+  private val loadingKeys = new ThreadLocal[Set[(CacheAPI, String)]] {
+    override def initialValue = Set.empty
+  }
+
+  /**
+   * Retrieve a value from the cache, or load it once for the concurrent callers. The callers wait for the value for
+   * up to `timeout`, then load it themselves. A reentrant load of the same key is loaded by the same caller right
+   * away, since it would otherwise wait for itself.
+   */
+  private[cache] def getOrLoad(api: CacheAPI, key: String, expiration: Int, timeout: Duration)(load: => Any): Any = {
+    def loadAndSet = {
+      val value = load
+      api.set(key, value, expiration)
+      value
+    }
+    val loading = loadingKeys.get
+    if (loading.contains(api -> key)) api.get(key).getOrElse(loadAndSet) else {
+      val loaded = api.getOrElseAsync(key, expiration) {
+        loadingKeys.set(loading + (api -> key))
+        try Future.successful(load) finally loadingKeys.set(loading)
+      }
+      try Await.result(loaded, timeout) catch {
+        case e: java.util.concurrent.TimeoutException => loadAndSet
+      }
+    }
+  }
+
+  /**
+   * Retrieve a value from the cache, or set it from a default function returning a `Future`.
+   *
+   * When the value is missing, only one caller per key invokes the default function, and the concurrent callers get
+   * the same `Future`.
+   *
+   * @param key Item key.
+   * @param expiration expiration period in seconds.
+   * @param orElse The default function to invoke if the value was found in cache.
+   */
+  def getOrElseAsync[A](key: String, expiration: Int = 0)(orElse: => Future[A])(implicit app: Application, ct: ClassTag[A]): Future[A] = {
+    cacheAPI.getOrElseAsync(key, expiration)(orElse).flatMap { value =>
+      if (TypeUtils.isInstance(value, ct.runtimeClass)) Future.successful(value.asInstanceOf[A]) else {
+        orElse.map { value =>
+          set(key, value, expiration)
+          value
+        }(play.core.Execution.internalContext)
+      }
+    }(play.core.Execution.internalContext)
+  }
+
   /**
    * Retrieve a value from the cache for the given type
    *
@@ -95,8 +352,177 @@ object Cache {
   def remove(key: String)(implicit app: Application) {
     cacheAPI.remove(key)
   }
+
+  /**
+   * Atomically add a number to a value, or set it to `initial` if it is missing or is not a number.
+   *
+   * {{{
+   * val hits = Cache.incr("hits." + request.remoteAddress, 1, 1, 60)
+   * }}}
+   *
+   * @param key Item key.
+   * @param delta The number to add, which may be negative.
+   * @param initial The value of a missing key.
+   * @param expiration Expiration time in seconds (0 second means eternity) of a missing key.
+   * @return the new value
+   */
+  def incr(key: String, delta: Long, initial: Long, expiration: Int = 0)(implicit app: Application): Long = {
+    cacheAPI.incr(key, delta, initial, expiration)
+  }
+
+  /**
+   * Atomically set a value into the cache, unless a value is already set.
+   *
+   * @param key Item key.
+   * @param value Item value.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   * @return the value already set, or None if the value was set
+   */
+  def putIfAbsent(key: String, value: Any, expiration: Int = 0)(implicit app: Application): Option[Any] = {
+    cacheAPI.putIfAbsent(key, value, expiration)
+  }
+
+  /**
+   * Atomically replace a value in the cache, if it is equal to the expected value.
+   *
+   * @param key Item key.
+   * @param expected The value that must be set.
+   * @param value The new value.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   * @return whether the value was replaced
+   */
+  def replace(key: String, expected: Any, value: Any, expiration: Int = 0)(implicit app: Application): Boolean = {
+    cacheAPI.replace(key, expected, value, expiration)
+  }
+
+  /**
+   * Retrieve several values from the cache.
+   *
+   * @param keys Item keys.
+   * @return the values found, by key
+   */
+  def getAll(keys: String*)(implicit app: Application): Map[String, Any] = {
+    cacheAPI.getAll(keys)
+  }
+
+  /**
+   * Sets several values.
+   *
+   * @param values Item values, by key.
+   * @param expiration expiration period in seconds.
+   */
+  def setAll(values: Map[String, Any], expiration: Int = 0)(implicit app: Application) {
+    cacheAPI.setAll(values, expiration)
+  }
+
+  /**
+   * Remove several values from the cache.
+   *
+   * @param keys Item keys.
+   */
+  def removeAll(keys: String*)(implicit app: Application) {
+    cacheAPI.removeAll(keys)
+  }
+
+  /**
+   * Retrieve a value from the cache, without blocking.
+   *
+   * @param key Item key.
+   */
+  def getAsync(key: String)(implicit app: Application): Future[Option[Any]] = {
+    cacheAPI.getAsync(key)
+  }
+
+  /**
+   * Sets a value, without blocking.
+   *
+   * @param key Item key.
+   * @param value Item value.
+   * @param expiration expiration period in seconds.
+   */
+  def setAsync(key: String, value: Any, expiration: Int = 0)(implicit app: Application): Future[Unit] = {
+    cacheAPI.setAsync(key, value, expiration)
+  }
+
+  /**
+   * Remove a value from the cache, without blocking.
+   *
+   * @param key Item key.
+   */
+  def removeAsync(key: String)(implicit app: Application): Future[Unit] = {
+    cacheAPI.removeAsync(key)
+  }
+
+  /**
+   * Retrieve several values from the cache, without blocking.
+   *
+   * @param keys Item keys.
+   * @return the values found, by key
+   */
+  def getAllAsync(keys: String*)(implicit app: Application): Future[Map[String, Any]] = {
+    cacheAPI.getAllAsync(keys)
+  }
+
+  /**
+   * Sets several values, without blocking.
+   *
+   * @param values Item values, by key.
+   * @param expiration expiration period in seconds.
+   */
+  def setAllAsync(values: Map[String, Any], expiration: Int = 0)(implicit app: Application): Future[Unit] = {
+    cacheAPI.setAllAsync(values, expiration)
+  }
+
+  /**
+   * Remove several values from the cache, without blocking.
+   *
+   * @param keys Item keys.
+   */
+  def removeAllAsync(keys: String*)(implicit app: Application): Future[Unit] = {
+    cacheAPI.removeAllAsync(keys)
+  }
 }
 
+/**
+ * Coordinates the loading of cache values, so that only one caller per key loads a value at a time.
+ */
+private[cache] class SingleFlight {
+
+  private val loading = new java.util.concurrent.ConcurrentHashMap[String, Future[Any]]
+
+  /**
+   * Loads a value, unless it is already being loaded.
+   *
+   * @param load loads the value
+   * @param store stores the loaded value along with the time it took to load, before the callers get it
+   */
+  def apply(key: String)(load: => Future[Any])(store: (Any, Long) => Unit): Future[Any] = {
+    val promise = Promise[Any]()
+    Option(loading.putIfAbsent(key, promise.future)).getOrElse {
+      val start = System.currentTimeMillis
+      val loaded = try load catch { case NonFatal(e) => Future.failed(e) }
+      def complete(result: Try[Any]) {
+        result.foreach { value =>
+          try store(value, System.currentTimeMillis - start) catch {
+            case NonFatal(e) => Logger("play").error("Cannot store the value loaded for " + key, e)
+          }
+        }
+        loading.remove(key, promise.future)
+        promise.complete(result)
+      }
+      if (loaded.isCompleted) complete(loaded.value.get) else loaded.onComplete(complete)(play.core.Execution.internalContext)
+      promise.future
+    }
+  }
+
+}
+
+/**
+ * A value loaded by `getOrElse`, with its logical expiration time (0 meaning eternity) and the time it took to load.
+ * The cache element itself may live longer, so that stale values can be served while they are reloaded.
+ */
+private[cache] case class Loaded(value: Any, expiresAt: Long, loadMillis: Long)
+
 /**
  * A Cache Plugin provides an implementation of the Cache API.
  */
@@ -108,21 +534,109 @@ abstract class CachePlugin extends Plugin {
    */
   def api: CacheAPI
 
+  /**
+   * The cache region with the given name, for plugins supporting separate regions. Other plugins store every value
+   * in the same cache.
+   */
+  def region(name: String): CacheAPI = api
+
+  /**
+   * Statistics of each cache region, for plugins supporting them.
+   */
+  def stats: Map[String, CacheStats] = Map.empty
+
 }
 
+/**
+ * Statistics of a cache region.
+ *
+ * @param hits the number of values found
+ * @param misses the number of values not found
+ * @param evictions the number of values evicted to make room for other values
+ * @param size the number of values in the cache
+ */
+case class CacheStats(hits: Long, misses: Long, evictions: Long, size: Long)
+
 /**
  * EhCache implementation.
  */
 class EhCachePlugin(app: Application) extends CachePlugin {
 
   import net.sf.ehcache._
+  import net.sf.ehcache.config.{ CacheConfiguration, MemoryUnit, PersistenceConfiguration }
+  import net.sf.ehcache.store.MemoryStoreEvictionPolicy
 
   lazy val (manager, cache) = {
     val manager = CacheManager.create()
-    manager.addCache("play")
+    regionConfigurations.foreach { configuration =>
+      manager.addCache(new net.sf.ehcache.Cache(configuration))
+    }
+    if (!manager.cacheExists("play")) manager.addCache("play")
     (manager, manager.getCache("play"))
   }
 
+  /**
+   * The configured cache regions. The `play` region, if configured, is the default cache.
+   *
+   * {{{
+   * ehcache.regions {
+   *   users {
+   *     maxEntries=10000
+   *     timeToLive=10m
+   *   }
+   *   pages {
+   *     maxBytes=50m
+   *     timeToIdle=1h
+   *     eviction=LFU
+   *     diskOverflow=true
+   *   }
+   * }
+   * }}}
+   */
+  private lazy val regionConfigurations: Seq[CacheConfiguration] = {
+    val regions = app.configuration.getConfig("ehcache.regions").getOrElse(Configuration.empty)
+    regions.subKeys.toSeq.map { name =>
+      val region = regions.getConfig(name).get
+      val configuration = new CacheConfiguration().name(name).statistics(true)
+      region.getInt("maxEntries").foreach(maxEntries => configuration.maxEntriesLocalHeap(maxEntries))
+      region.getBytes("maxBytes").foreach(maxBytes => configuration.maxBytesLocalHeap(maxBytes, MemoryUnit.BYTES))
+      region.getMilliseconds("timeToLive").foreach(ttl => configuration.timeToLiveSeconds(ttl / 1000))
+      region.getMilliseconds("timeToIdle").foreach(tti => configuration.timeToIdleSeconds(tti / 1000))
+      region.getString("eviction", Some(Set("LRU", "LFU", "FIFO"))).foreach { policy =>
+        configuration.memoryStoreEvictionPolicy(MemoryStoreEvictionPolicy.fromString(policy))
+      }
+      region.getBytes("maxBytesOffHeap").foreach { maxBytes =>
+        configuration.overflowToOffHeap(true).maxBytesLocalOffHeap(maxBytes, MemoryUnit.BYTES)
+      }
+      region.getBoolean("diskOverflow").filter(identity).foreach { _ =>
+        configuration.persistence(new PersistenceConfiguration().strategy(PersistenceConfiguration.Strategy.LOCALTEMPSWAP))
+        region.getBytes("maxBytesOnDisk").foreach(maxBytes => configuration.maxBytesLocalDisk(maxBytes, MemoryUnit.BYTES))
+      }
+      configuration
+    }
+  }
+
+  private lazy val regionNames: Set[String] = regionConfigurations.map(_.getName).toSet
+
+  private lazy val regions: Map[String, CacheAPI] = (regionNames - "play").map { name =>
+    name -> new EhCacheAPI(manager.getCache(name), eternal = false)
+  }.toMap
+
+  /**
+   * The configured cache region with the given name.
+   */
+  override def region(name: String): CacheAPI = regions.get(name).getOrElse {
+    if (name == "play") api else throw new IllegalArgumentException("There is no cache region named " + name + ". Make sure it is configured in ehcache.regions.")
+  }
+
+  /**
+   * The hits, misses, evictions and size of each cache region, including the default `play` cache.
+   */
+  override def stats: Map[String, CacheStats] = manager.getCacheNames.toSeq.map { name =>
+    val statistics = manager.getCache(name).getStatistics
+    name -> CacheStats(statistics.getCacheHits, statistics.getCacheMisses, statistics.getEvictionCount, statistics.getObjectCount)
+  }.toMap
+
   /**
    * Is this plugin enabled.
    *
@@ -135,29 +649,138 @@ class EhCachePlugin(app: Application) extends CachePlugin {
   }
 
   override def onStart() {
-    cache
+    cache.setStatisticsEnabled(true)
   }
 
   override def onStop() {
     manager.shutdown()
   }
 
-  lazy val api = new CacheAPI {
+  /**
+   * How long expired values loaded by `getOrElse` may still be served while they are reloaded, in seconds.
+   *
+   * {{{
+   * ehcache.staleWhileRevalidate=10
+   * }}}
+   */
+  lazy val staleWhileRevalidate: Int = app.configuration.getInt("ehcache.staleWhileRevalidate").getOrElse(0)
+
+  /**
+   * How eagerly values loaded by `getOrElse` are reloaded before they expire, 0 disabling early reloads. With 1,
+   * a value is reloaded on average one load duration before it expires, and higher values reload it earlier.
+   *
+   * {{{
+   * ehcache.earlyRefresh=1
+   * }}}
+   */
+  lazy val earlyRefresh: Double = app.configuration.getDouble("ehcache.earlyRefresh").getOrElse(0)
 
-    def set(key: String, value: Any, expiration: Int) {
+  lazy val api: CacheAPI = new EhCacheAPI(cache, eternal = !regionNames.contains("play"))
+
+  /**
+   * The Cache API of an EhCache region.
+   *
+   * @param eternal whether values set without expiration never expire, rather than expiring as configured for the region
+   */
+  private class EhCacheAPI(cache: Ehcache, eternal: Boolean) extends CacheAPI {
+
+    import scala.collection.JavaConverters._
+
+    private def value(element: Element): Option[Any] = element.getObjectValue match {
+      case Loaded(_, expiresAt, _) if expiresAt > 0 && expiresAt <= System.currentTimeMillis => None
+      case Loaded(value, _, _) => Some(value)
+      case value => Some(value)
+    }
+
+    private def element(key: String, value: Any, expiration: Int) = {
       val element = new Element(key, value)
-      if (expiration == 0) element.setEternal(true)
-      element.setTimeToLive(expiration)
-      cache.put(element)
+      if (expiration != 0) element.setTimeToLive(expiration)
+      else if (eternal) element.setEternal(true)
+      element
+    }
+
+    def set(key: String, value: Any, expiration: Int) {
+      cache.put(element(key, value, expiration))
     }
 
     def get(key: String): Option[Any] = {
-      Option(cache.get(key)).map(_.getObjectValue)
+      Option(cache.get(key)).flatMap(value)
     }
 
     def remove(key: String) {
       cache.remove(key)
     }
+
+    override def getAll(keys: Seq[String]): Map[String, Any] = {
+      cache.getAll(keys.asJavaCollection).asScala.toSeq.flatMap {
+        case (key: String, element) if element != null => value(element).map(key -> _)
+        case _ => None
+      }.toMap
+    }
+
+    override def setAll(values: Map[String, Any], expiration: Int) {
+      cache.putAll(values.map { case (key, value) => element(key, value, expiration) }.asJavaCollection)
+    }
+
+    override def removeAll(keys: Seq[String]) {
+      cache.removeAll(keys.asJavaCollection)
+    }
+
+    override def incr(key: String, delta: Long, initial: Long, expiration: Int): Long = {
+      val current = cache.get(key)
+      Option(current).flatMap(value).collect { case n: java.lang.Number => n.longValue + delta } match {
+        case Some(updated) if cache.replace(current, keepExpiration(current, updated)) => updated
+        case None if current == null && cache.putIfAbsent(element(key, initial, expiration)) == null => initial
+        case None if current != null && cache.replace(current, element(key, initial, expiration)) => initial
+        case _ => incr(key, delta, initial, expiration)
+      }
+    }
+
+    override def putIfAbsent(key: String, value: Any, expiration: Int): Option[Any] = {
+      val previous = cache.putIfAbsent(element(key, value, expiration))
+      if (previous == null) None
+      else this.value(previous) match {
+        // An expired value loaded by getOrElse is still stored while it is reloaded
+        case None if cache.replace(previous, element(key, value, expiration)) => None
+        case None => putIfAbsent(key, value, expiration)
+        case existing => existing
+      }
+    }
+
+    override def replace(key: String, expected: Any, value: Any, expiration: Int): Boolean = {
+      val current = cache.get(key)
+      current != null && this.value(current).exists(_ == expected) && cache.replace(current, element(key, value, expiration))
+    }
+
+    /**
+     * A new element for the value, expiring at the same time as the current element.
+     */
+    private def keepExpiration(current: Element, value: Any) = {
+      new Element(current.getObjectKey, value, current.getVersion + 1, current.getCreationTime, current.getLastAccessTime,
+        current.getHitCount, current.usesCacheDefaultLifespan, current.getTimeToLive, current.getTimeToIdle, System.currentTimeMillis)
+    }
+
+    override def getOrElseAsync(key: String, expiration: Int)(load: => Future[Any]): Future[Any] = {
+      def reload = singleFlight(key)(load) { (value, loadMillis) =>
+        val expiresAt = if (expiration == 0) 0 else System.currentTimeMillis + expiration * 1000L
+        cache.put(element(key, Loaded(value, expiresAt, loadMillis), if (expiration == 0) 0 else expiration + staleWhileRevalidate))
+      }
+      val now = System.currentTimeMillis
+      Option(cache.get(key)).map(_.getObjectValue) match {
+        case Some(Loaded(value, 0L, _)) => Future.successful(value)
+        case Some(Loaded(value, expiresAt, loadMillis)) if now < expiresAt => {
+          // The closer to the expiration, and the longer the value takes to load, the more likely an early reload
+          if (earlyRefresh > 0 && now - loadMillis * earlyRefresh * math.log(scala.util.Random.nextDouble) >= expiresAt) reload
+          Future.successful(value)
+        }
+        case Some(Loaded(value, expiresAt, _)) if now < expiresAt + staleWhileRevalidate * 1000L => {
+          reload
+          Future.successful(value)
+        }
+        case Some(Loaded(_, _, _)) | None => reload
+        case Some(value) => Future.successful(value)
+      }
+    }
   }
 
 }
@@ -2,11 +2,23 @@ package play.api.cache
 
 import play.api._
 import play.api.mvc._
-import reflect.ClassTag
+import play.api.http.HeaderNames._
+import play.api.http.Status._
+import play.api.libs.Codecs
+import play.api.libs.iteratee._
+import play.core.Execution.internalContext
+
+import scala.concurrent.{ Future, Promise }
 
 /**
  * Cache an action.
  *
+ * The `OK` results of the action without cookies are read in memory and cached, with an `ETag` header computed from
+ * their body unless they have one. While the response is cached, the action is not invoked: requests get the cached
+ * response, or `304 Not Modified` when their `If-None-Match` header matches its `ETag`.
+ *
+ * Files, and bodies larger than `cache.maxResponseSize` (1MB by default), are streamed without being cached.
+ *
  * @param key Compute a key from the request header
  * @param duration Cache duration (in seconds)
  * @param action Action to cache
@@ -16,9 +28,7 @@ case class Cached[A](key: RequestHeader => String, duration: Int)(action: Action
   lazy val parser = action.parser
 
   def apply(request: Request[A]): Result = {
-    Cache.getOrElse[Result](key(request), duration) {
-      action(request)
-    }(app, implicitly[ClassTag[Result]])
+    Cached.serve(key(request), duration, request)(action(request))
   }
 
 }
@@ -56,4 +66,118 @@ object Cached {
     Cached(_ => key, duration)(action)
   }
 
-}
\ No newline at end of file
+  /**
+   * Serves the response cached for a request, or computes the result and caches it.
+   *
+   * @param key Cache key
+   * @param duration Cache duration (in seconds)
+   * @param request The request, answered with `304 Not Modified` when its `If-None-Match` header matches the `ETag`
+   * @param result Computes the result when no response is cached
+   */
+  def serve(key: String, duration: Int, request: RequestHeader)(result: => Result)(implicit app: Application): Result = {
+    Cache.getAs[CachedResponse](key).map(_.result(request)).getOrElse(cache(key, duration, request, result))
+  }
+
+  private def cache(key: String, duration: Int, request: RequestHeader, result: Result)(implicit app: Application): Result = result match {
+    case AsyncResult(future) => AsyncResult(future.map(cache(key, duration, request, _))(internalContext))
+    case result: SimpleResult[_] if result.header.status == OK && !result.header.headers.contains(SET_COOKIE) && !tooLarge(result) => AsyncResult {
+      read(bytes(result), maxResponseSize).map {
+        case Right(body) => {
+          val headers = result.header.headers - CONTENT_LENGTH
+          val response = CachedResponse(result.header.status, headers + (ETAG -> headers.get(ETAG).getOrElse("\"" + Codecs.sha1(body) + "\"")), body)
+          Cache.set(key, response, duration)
+          response.result(request)
+        }
+        case Left(body) => SimpleResult(result.header, body)
+      }(internalContext)
+    }
+    case result => result
+  }
+
+  /**
+   * The size of the largest body that is cached.
+   *
+   * {{{
+   * cache.maxResponseSize=1m
+   * }}}
+   */
+  private def maxResponseSize(implicit app: Application): Long = {
+    app.configuration.getBytes("cache.maxResponseSize").getOrElse(1024L * 1024)
+  }
+
+  /**
+   * Whether a result is known to be too large to be cached without reading its body: files are better sent by the
+   * server straight from the disk.
+   */
+  private def tooLarge(result: SimpleResult[_])(implicit app: Application): Boolean = {
+    result.body.isInstanceOf[FileEnumerator] ||
+      result.header.headers.get(CONTENT_LENGTH).flatMap(length => scala.util.Try(length.toLong).toOption).exists(_ > maxResponseSize)
+  }
+
+  private def bytes[A](result: SimpleResult[A]): Enumerator[Array[Byte]] = {
+    result.body &> Enumeratee.map[A](result.writeable.transform)
+  }
+
+  /**
+   * Reads a body in memory, unless it is larger than maxSize. The reading of a larger body stops once maxSize is
+   * exceeded, and the returned enumerator sends the bytes already read followed by the rest of the body, which is
+   * only enumerated once.
+   */
+  private def read(body: Enumerator[Array[Byte]], maxSize: Long): Future[Either[Enumerator[Array[Byte]], Array[Byte]]] = {
+    val outcome = Promise[Either[Enumerator[Array[Byte]], Array[Byte]]]()
+    // The iteratee the rest of a larger body is fed to, once the returned enumerator is applied
+    val rest = Promise[Iteratee[Array[Byte], Any]]()
+    val enumerated = Promise[Iteratee[Array[Byte], Any]]()
+
+    def step(chunks: Vector[Array[Byte]], size: Long): Input[Array[Byte]] => Iteratee[Array[Byte], Any] = {
+      case Input.El(chunk) if size + chunk.length > maxSize => {
+        outcome.success(Left(new Enumerator[Array[Byte]] {
+          def apply[A](i: Iteratee[Array[Byte], A]) = {
+            rest.success(Iteratee.flatten(Enumerator((chunks :+ chunk): _*) |>> i))
+            enumerated.future.map(_.asInstanceOf[Iteratee[Array[Byte], A]])(internalContext)
+          }
+        }))
+        Iteratee.flatten(rest.future)
+      }
+      case Input.El(chunk) => Cont(step(chunks :+ chunk, size + chunk.length))
+      case Input.Empty => Cont(step(chunks, size))
+      case Input.EOF => {
+        outcome.success(Right(chunks.flatten.toArray))
+        Done[Array[Byte], Any]((), Input.EOF)
+      }
+    }
+
+    enumerated.completeWith(body |>> Cont(step(Vector.empty, 0)))
+    enumerated.future.onFailure { case e => outcome.tryFailure(e) }(internalContext)
+    outcome.future
+  }
+
+}
+
+/**
+ * A response read in memory, to be cached.
+ */
+private[cache] case class CachedResponse(status: Int, headers: Map[String, String], body: Array[Byte]) {
+
+  /**
+   * The response to a request, or `304 Not Modified` if the request already has it.
+   */
+  def result(request: RequestHeader): PlainResult = {
+    val etag = headers(ETAG)
+    val notModified = request.headers.get(IF_NONE_MATCH).exists(_.split(',').map(_.trim).exists { tag =>
+      tag == "*" || tag == etag || tag == "W/" + etag
+    })
+    if (notModified) Results.NotModified.withHeaders(headers.filterKeys(CachedResponse.NotModifiedHeaders).toSeq: _*)
+    else SimpleResult(ResponseHeader(status, headers + (CONTENT_LENGTH -> body.length.toString)), Enumerator(body))
+  }
+
+}
+
+private[cache] object CachedResponse {
+
+  /**
+   * The headers sent with a `304 Not Modified` response.
+   */
+  val NotModifiedHeaders = Set(ETAG, CACHE_CONTROL, EXPIRES, VARY, CONTENT_LOCATION, DATE)
+
+}
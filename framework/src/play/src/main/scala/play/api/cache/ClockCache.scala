@@ -0,0 +1,358 @@
+package play.api.cache
+
+import play.api._
+
+/**
+ * A cache plugin keeping a bounded number of values in memory, evicting them with the CLOCK policy.
+ *
+ * It suits small and frequently read values, such as counters and flags, better than EhCache: `Int` and `Long`
+ * values are stored unboxed, and reading or incrementing them with `getLong`, `setLong` and `incr` does not
+ * allocate.
+ *
+ * To use it instead of EhCache, register it with a higher priority in `conf/play.plugins`:
+ * {{{
+ * 500:play.api.cache.ClockCachePlugin
+ * }}}
+ */
+class ClockCachePlugin(app: Application) extends CachePlugin {
+
+  /**
+   * The largest number of values kept in the cache.
+   *
+   * {{{
+   * clockcache.maxEntries=10000
+   * }}}
+   */
+  lazy val maxEntries: Int = app.configuration.getInt("clockcache.maxEntries").getOrElse(10000)
+
+  /**
+   * The number of independently locked parts of the cache, rounded down to a power of two.
+   *
+   * {{{
+   * clockcache.stripes=16
+   * }}}
+   */
+  lazy val stripes: Int = app.configuration.getInt("clockcache.stripes").getOrElse(16)
+
+  /**
+   * Is this plugin enabled.
+   *
+   * {{{
+   * clockcacheplugin=disabled
+   * }}}
+   */
+  override lazy val enabled = {
+    !app.configuration.getString("clockcacheplugin").filter(_ == "disabled").isDefined
+  }
+
+  lazy val api: ClockCache = new ClockCache(maxEntries, stripes)
+
+  override def stats: Map[String, CacheStats] = Map("play" -> api.stats)
+
+}
+
+/**
+ * An in-memory cache holding about `maxEntries` values, evicting them with the CLOCK policy.
+ *
+ * The values are kept in open addressing hash tables, each guarded by its own lock, so that concurrent accesses to
+ * different keys rarely contend. A value that is read gets a reference bit; when the cache is full, a clock hand
+ * sweeps the table, clearing the reference bits it meets until it finds a value without one, which is evicted.
+ * Values are stored without their reference bit, so that values read only once are evicted first.
+ *
+ * @param maxEntries the number of values kept in the cache, split evenly between its parts
+ * @param stripes the number of independently locked parts of the cache, rounded down to a power of two
+ */
+class ClockCache(maxEntries: Int, stripes: Int = 16) extends CacheAPI {
+
+  require(maxEntries > 0, "maxEntries must be positive")
+
+  import ClockCache._
+
+  private val segmentBits = 31 - Integer.numberOfLeadingZeros(math.max(1, math.min(stripes, maxEntries)))
+
+  private val segmentMask = (1 << segmentBits) - 1
+
+  private val segments = Array.fill(1 << segmentBits)(new Segment((maxEntries + segmentMask) >> segmentBits))
+
+  private def segment(hash: Int) = segments((hash >>> (32 - segmentBits)) & segmentMask)
+
+  def set(key: String, value: Any, expiration: Int) {
+    val h = hash(key)
+    segment(h).put(key, h, kindOf(value), longOf(value), refOf(value), expiresAt(expiration))
+  }
+
+  def get(key: String): Option[Any] = {
+    val h = hash(key)
+    segment(h).get(key, h)
+  }
+
+  def remove(key: String) {
+    val h = hash(key)
+    segment(h).remove(key, h)
+  }
+
+  /**
+   * Sets a `Long` value without boxing it.
+   *
+   * @param key Item key.
+   * @param value Item value.
+   * @param expiration Expiration time in seconds (0 second means eternity).
+   */
+  def setLong(key: String, value: Long, expiration: Int = 0) {
+    val h = hash(key)
+    segment(h).put(key, h, LongKind, value, null, expiresAt(expiration))
+  }
+
+  /**
+   * Retrieves a number without boxing it.
+   *
+   * @param key Item key.
+   * @param default the value returned when the key is missing or its value is not a number
+   */
+  def getLong(key: String, default: Long): Long = {
+    val h = hash(key)
+    segment(h).getLong(key, h, default)
+  }
+
+  /**
+   * Adds `delta` to a number, or sets it to `initial` if the key is missing or its value is not a number.
+   *
+   * @param key Item key.
+   * @param delta the number to add, which may be negative
+   * @param initial the value of a missing key
+   * @param expiration Expiration time in seconds (0 second means eternity) of a missing key. The expiration of an
+   *   existing value is not changed.
+   * @return the new value
+   */
+  override def incr(key: String, delta: Long, initial: Long, expiration: Int): Long = {
+    val h = hash(key)
+    segment(h).incr(key, h, delta, initial, expiresAt(expiration))
+  }
+
+  override def putIfAbsent(key: String, value: Any, expiration: Int): Option[Any] = {
+    val h = hash(key)
+    segment(h).putIfAbsent(key, h, kindOf(value), longOf(value), refOf(value), expiresAt(expiration))
+  }
+
+  override def replace(key: String, expected: Any, value: Any, expiration: Int): Boolean = {
+    val h = hash(key)
+    segment(h).replace(key, h, expected, kindOf(value), longOf(value), refOf(value), expiresAt(expiration))
+  }
+
+  /**
+   * The hits, misses, evictions and size of the cache.
+   */
+  def stats: CacheStats = segments.foldLeft(CacheStats(0, 0, 0, 0)) { (stats, segment) =>
+    segment.synchronized {
+      CacheStats(stats.hits + segment.hits, stats.misses + segment.misses, stats.evictions + segment.evictions, stats.size + segment.size)
+    }
+  }
+
+}
+
+private[cache] object ClockCache {
+
+  val RefKind: Byte = 0
+  val IntKind: Byte = 1
+  val LongKind: Byte = 2
+
+  def hash(key: String): Int = {
+    val h = key.hashCode * 0x9E3779B9
+    h ^ (h >>> 16)
+  }
+
+  def kindOf(value: Any): Byte = value match {
+    case _: java.lang.Long => LongKind
+    case _: java.lang.Integer => IntKind
+    case _ => RefKind
+  }
+
+  def longOf(value: Any): Long = value match {
+    case n: java.lang.Long => n.longValue
+    case n: java.lang.Integer => n.longValue
+    case _ => 0L
+  }
+
+  def refOf(value: Any): AnyRef = if (kindOf(value) == RefKind) value.asInstanceOf[AnyRef] else null
+
+  def expiresAt(expiration: Int): Long = if (expiration == 0) 0L else System.currentTimeMillis + expiration * 1000L
+
+  /**
+   * An open addressing hash table with linear probing, holding at most `capacity` values. Its arrays are kept at
+   * most half full, and removed values are filled by shifting the following ones back, so that no tombstones are
+   * needed.
+   */
+  final class Segment(capacity: Int) {
+
+    private val length = Integer.highestOneBit(capacity * 4 - 1)
+    private val mask = length - 1
+
+    private val keys = new Array[String](length)
+    private val hashes = new Array[Int](length)
+    private val kinds = new Array[Byte](length)
+    private val longs = new Array[Long](length)
+    private val refs = new Array[AnyRef](length)
+    private val expirations = new Array[Long](length)
+    private val referenced = new Array[Boolean](length)
+
+    private var hand = 0
+
+    var size = 0
+    var hits = 0L
+    var misses = 0L
+    var evictions = 0L
+
+    /**
+     * The slot of the key, or `-(slot + 1)` of the empty slot where it would be inserted.
+     */
+    private def index(key: String, hash: Int): Int = {
+      var i = hash & mask
+      while (keys(i) != null) {
+        if (hashes(i) == hash && keys(i) == key) return i
+        i = (i + 1) & mask
+      }
+      -(i + 1)
+    }
+
+    private def expired(i: Int) = expirations(i) != 0 && expirations(i) <= System.currentTimeMillis
+
+    /**
+     * The slot of the live value of the key, or -1, counting the hit or the miss.
+     */
+    private def lookup(key: String, hash: Int): Int = {
+      val i = index(key, hash)
+      if (i >= 0 && !expired(i)) {
+        referenced(i) = true
+        hits += 1
+        i
+      } else {
+        if (i >= 0) delete(i)
+        misses += 1
+        -1
+      }
+    }
+
+    private def valueOf(i: Int): Any = kinds(i) match {
+      case LongKind => longs(i)
+      case IntKind => longs(i).toInt
+      case _ => refs(i)
+    }
+
+    def get(key: String, hash: Int): Option[Any] = synchronized {
+      val i = lookup(key, hash)
+      if (i < 0) None else Some(valueOf(i))
+    }
+
+    def getLong(key: String, hash: Int, default: Long): Long = synchronized {
+      val i = lookup(key, hash)
+      if (i < 0) default
+      else if (kinds(i) != RefKind) longs(i)
+      else refs(i) match {
+        case n: java.lang.Number => n.longValue
+        case _ => default
+      }
+    }
+
+    def put(key: String, hash: Int, kind: Byte, long: Long, ref: AnyRef, expiresAt: Long) {
+      synchronized {
+        store(insert(key, hash), kind, long, ref, expiresAt)
+      }
+    }
+
+    def incr(key: String, hash: Int, delta: Long, initial: Long, expiresAt: Long): Long = synchronized {
+      val i = index(key, hash)
+      if (i >= 0 && !expired(i) && (kinds(i) != RefKind || refs(i).isInstanceOf[java.lang.Number])) {
+        val value = (if (kinds(i) != RefKind) longs(i) else refs(i).asInstanceOf[java.lang.Number].longValue) + delta
+        referenced(i) = true
+        store(i, LongKind, value, null, expirations(i))
+        value
+      } else {
+        store(insert(key, hash), LongKind, initial, null, expiresAt)
+        initial
+      }
+    }
+
+    def putIfAbsent(key: String, hash: Int, kind: Byte, long: Long, ref: AnyRef, expiresAt: Long): Option[Any] = synchronized {
+      val i = lookup(key, hash)
+      if (i >= 0) Some(valueOf(i))
+      else {
+        store(insert(key, hash), kind, long, ref, expiresAt)
+        None
+      }
+    }
+
+    def replace(key: String, hash: Int, expected: Any, kind: Byte, long: Long, ref: AnyRef, expiresAt: Long): Boolean = synchronized {
+      val i = lookup(key, hash)
+      if (i >= 0 && valueOf(i) == expected) {
+        store(i, kind, long, ref, expiresAt)
+        true
+      } else false
+    }
+
+    def remove(key: String, hash: Int) {
+      synchronized {
+        val i = index(key, hash)
+        if (i >= 0) delete(i)
+      }
+    }
+
+    /**
+     * The slot of the key, inserting it if it is missing.
+     */
+    private def insert(key: String, hash: Int): Int = {
+      val i = index(key, hash)
+      if (i >= 0) i
+      else {
+        // Evicting shifts values back, so the insertion slot must be looked up again
+        val slot = if (size < capacity) -i - 1 else { evict(); -index(key, hash) - 1 }
+        keys(slot) = key
+        hashes(slot) = hash
+        referenced(slot) = false
+        size += 1
+        slot
+      }
+    }
+
+    private def store(i: Int, kind: Byte, long: Long, ref: AnyRef, expiresAt: Long) {
+      kinds(i) = kind
+      longs(i) = long
+      refs(i) = ref
+      expirations(i) = expiresAt
+    }
+
+    private def evict() {
+      while (true) {
+        val i = hand
+        hand = (hand + 1) & mask
+        if (keys(i) != null) {
+          if (referenced(i) && !expired(i)) referenced(i) = false
+          else {
+            delete(i)
+            evictions += 1
+            return
+          }
+        }
+      }
+    }
+
+    private def delete(i: Int) {
+      var gap = i
+      var j = (i + 1) & mask
+      while (keys(j) != null) {
+        // The value can fill the gap if the gap is between its home slot and its slot
+        if (((j - (hashes(j) & mask)) & mask) >= ((j - gap) & mask)) {
+          keys(gap) = keys(j)
+          hashes(gap) = hashes(j)
+          referenced(gap) = referenced(j)
+          store(gap, kinds(j), longs(j), refs(j), expirations(j))
+          gap = j
+        }
+        j = (j + 1) & mask
+      }
+      keys(gap) = null
+      refs(gap) = null
+      size -= 1
+    }
+  }
+
+}
@@ -23,6 +23,10 @@ import scala.util.control.NonFatal
  * It handles Last-Modified and ETag header automatically.
  * If a gzipped version of a resource is found (Same resource name with the .gz suffix), it is served instead.
  *
+ * In prod mode, resources are held in memory, with a gzipped version of text resources, in a cache bounded by
+ * `assets.memoryCache.maxSize` (10MB by default, 0 to disable it). Resources larger than
+ * `assets.memoryCache.maxEntrySize` (1MB by default) are always read from the classpath.
+ *
  * You can set a custom Cache directive for a particular resource if needed. For example in your application.conf file:
  *
  * {{{
@@ -76,8 +80,38 @@ class AssetsBuilder extends Controller {
 
     val resourceName = Option(path + "/" + file).map(name => if (name.startsWith("/")) name else ("/" + name)).get
 
+    lazy val cachedAsset = if (Play.isProd) memoryCache.flatMap(_.get(resourceName, file)) else None
+
     if (new File(resourceName).isDirectory || !new File(resourceName).getCanonicalPath.startsWith(new File(path).getCanonicalPath)) {
       NotFound
+    } else if (cachedAsset.isDefined) {
+
+      val asset = cachedAsset.get
+
+      val gzipped = asset.gzipped.filter(_ => request.headers.get(ACCEPT_ENCODING).map(_.split(',').exists(_.trim == "gzip")).getOrElse(false))
+      // Each version has its own ETag, so that caches revalidating one of them don't get the other
+      val etag = if (gzipped.isDefined) asset.gzippedEtag else asset.headers.get(ETAG)
+
+      request.headers.get(IF_NONE_MATCH).flatMap { ifNoneMatch =>
+        etag.filter(_ == ifNoneMatch)
+      }.map(_ => NotModified).getOrElse {
+        request.headers.get(IF_MODIFIED_SINCE).flatMap(parseDate).flatMap { ifModifiedSince =>
+          asset.headers.get(LAST_MODIFIED).flatMap(parseDate).filterNot(lastModified => lastModified.after(ifModifiedSince))
+        }.map(_ => NotModified.withHeaders(
+          DATE -> df.print({ new java.util.Date }.getTime))).getOrElse {
+
+          val bytes = gzipped.getOrElse(asset.bytes)
+
+          SimpleResult(
+            header = ResponseHeader(OK, asset.headers - ETAG ++ etag.map(ETAG -> _) ++ Map(
+              CONTENT_LENGTH -> bytes.length.toString,
+              DATE -> df.print({ new java.util.Date }.getTime),
+              CACHE_CONTROL -> cacheControl(resourceName)) ++ gzipped.map(_ => CONTENT_ENCODING -> "gzip")),
+            Enumerator(bytes))
+
+        }: Result
+      }
+
     } else {
 
       val gzippedResource = Play.resource(resourceName + ".gz")
@@ -95,11 +129,16 @@ class AssetsBuilder extends Controller {
         case (url, isGzipped) => {
 
           lazy val (length, resourceData) = {
-            val stream = url.openStream()
-            try {
-              (stream.available, Enumerator.fromStream(stream))
-            } catch {
-              case _ => (-1, Enumerator[Array[Byte]]())
+            // Files can be written straight to the connection by the server
+            Some(url).filter(_.getProtocol == "file").flatMap(u => scala.util.Try(new File(u.toURI)).toOption).filter(_.isFile).map { file =>
+              (file.length, new FileEnumerator(file): Enumerator[Array[Byte]])
+            }.getOrElse {
+              val stream = url.openStream()
+              try {
+                (stream.available.toLong, Enumerator.fromStream(stream))
+              } catch {
+                case _ => (-1L, Enumerator[Array[Byte]]())
+              }
             }
           }
 
@@ -119,7 +158,9 @@ class AssetsBuilder extends Controller {
                   header = ResponseHeader(OK, Map(
                     CONTENT_LENGTH -> length.toString,
                     CONTENT_TYPE -> MimeTypes.forFileName(file).map(m => m + addCharsetIfNeeded(m)).getOrElse(BINARY),
-                    DATE -> df.print({ new java.util.Date }.getTime))),
+                    DATE -> df.print({ new java.util.Date }.getTime)) ++
+                    // Byte ranges of files are served by the server
+                    Some(ACCEPT_RANGES -> "bytes").filter(_ => resourceData.isInstanceOf[FileEnumerator] && !isGzipped)),
                   resourceData)
 
                 // If there is a gzipped version, even if the client isn't accepting gzip, we need to specify the
@@ -135,12 +176,7 @@ class AssetsBuilder extends Controller {
                 val lastModifiedResponse = lastModifiedFor(url).map(lastModified => taggedResponse.withHeaders(LAST_MODIFIED -> lastModified)).getOrElse(taggedResponse)
 
                 // Add Cache directive if configured
-                val cachedResponse = lastModifiedResponse.withHeaders(CACHE_CONTROL -> {
-                  Play.configuration.getString("\"assets.cache." + resourceName + "\"").getOrElse(Play.mode match {
-                    case Mode.Prod => Play.configuration.getString("assets.defaultCache").getOrElse("max-age=3600")
-                    case _ => "no-cache"
-                  })
-                })
+                val cachedResponse = lastModifiedResponse.withHeaders(CACHE_CONTROL -> cacheControl(resourceName))
 
                 cachedResponse
 
@@ -158,6 +194,50 @@ class AssetsBuilder extends Controller {
 
   }
 
+  private def cacheControl(resourceName: String): String = {
+    Play.configuration.getString("\"assets.cache." + resourceName + "\"").getOrElse(Play.mode match {
+      case Mode.Prod => Play.configuration.getString("assets.defaultCache").getOrElse("max-age=3600")
+      case _ => "no-cache"
+    })
+  }
+
+  // -- In memory caching
+
+  /**
+   * The in memory cache of assets, used in prod mode. It is disabled when `assets.memoryCache.maxSize` is 0.
+   */
+  private lazy val memoryCache: Option[AssetCache] = {
+    Some(Play.configuration.getBytes("assets.memoryCache.maxSize").getOrElse(10L * 1024 * 1024)).filter(_ > 0).map { maxSize =>
+      new AssetCache(maxSize, maxCachedAssetSize, load)
+    }
+  }
+
+  private lazy val maxCachedAssetSize = Play.configuration.getBytes("assets.memoryCache.maxEntrySize").getOrElse(1024L * 1024)
+
+  private def load(resourceName: String, file: String): Option[CachedAsset] = {
+    Play.resource(resourceName).filterNot(url => url.getProtocol == "file" && new File(url.getFile).isDirectory).map { url =>
+      val contentType = MimeTypes.forFileName(file).map(m => m + addCharsetIfNeeded(m)).getOrElse(BINARY)
+      AssetCache.read(url, maxCachedAssetSize).flatMap { bytes =>
+        // The asset and its gzipped version must fit together in maxEntrySize
+        val maxGzippedSize = maxCachedAssetSize - bytes.length
+        val maybeGzipped = Play.resource(resourceName + ".gz") match {
+          // Without its gzipped version, the asset is better served from disk
+          case Some(gzippedOnDisk) => AssetCache.read(gzippedOnDisk, maxGzippedSize).map(g => Some(g -> etagFor(gzippedOnDisk)))
+          case None => Some(Some(bytes).filter(_ => MimeTypes.forFileName(file).exists(MimeTypes.isText)).map(AssetCache.gzip).filter(g => g.length < bytes.length && g.length <= maxGzippedSize).map { g =>
+            g -> etagFor(url).map(AssetCache.gzippedEtag)
+          })
+        }
+        maybeGzipped.map { gzipped =>
+          CachedAsset(bytes, gzipped.map(_._1), gzipped.flatMap(_._2), Map(CONTENT_TYPE -> contentType) ++
+            // As there is a gzipped version, the Vary header is needed so proxy servers cache both versions
+            gzipped.map(_ => VARY -> ACCEPT_ENCODING) ++
+            etagFor(url).map(ETAG -> _) ++
+            lastModifiedFor(url).map(LAST_MODIFIED -> _))
+        }
+      }.getOrElse(AssetCache.NotCacheable)
+    }
+  }
+
   private val lastModifieds = (new java.util.concurrent.ConcurrentHashMap[String, String]()).asScala
 
   private def lastModifiedFor(resource: java.net.URL): Option[String] = {
@@ -195,3 +275,88 @@ class AssetsBuilder extends Controller {
 
 }
 
+/**
+ * An asset held in memory, with its optional gzipped version.
+ *
+ * @param gzippedEtag the ETag of the gzipped version
+ * @param headers the Content-Type, Vary, ETag and Last-Modified headers
+ */
+private[controllers] case class CachedAsset(bytes: Array[Byte], gzipped: Option[Array[Byte]], gzippedEtag: Option[String], headers: Map[String, String]) {
+  def size: Long = bytes.length + gzipped.map(_.length).getOrElse(0)
+}
+
+/**
+ * A size bounded cache of assets, evicting the least recently used ones.
+ *
+ * @param maxSize the maximum number of bytes held by the cache
+ * @param maxEntrySize the size of the largest asset that is cached, including its gzipped version
+ * @param load loads an asset from its resource and file names, returning `AssetCache.NotCacheable` for an asset too
+ *   large to be cached, or None for a missing asset
+ */
+private[controllers] class AssetCache(maxSize: Long, maxEntrySize: Long, load: (String, String) => Option[CachedAsset]) {
+
+  private val entries = new java.util.LinkedHashMap[String, CachedAsset](16, 0.75f, true)
+
+  private var size = 0L
+
+  def get(resourceName: String, file: String): Option[CachedAsset] = {
+    synchronized(Option(entries.get(resourceName))).orElse {
+      // Assets too large to be cached are remembered, so that they are not loaded again by each request
+      load(resourceName, file).map { loaded =>
+        val asset = if (loaded.size <= maxEntrySize) loaded else AssetCache.NotCacheable
+        put(resourceName, asset)
+        asset
+      }
+    }.filterNot(_ eq AssetCache.NotCacheable)
+  }
+
+  private def put(resourceName: String, asset: CachedAsset): Unit = synchronized {
+    Option(entries.put(resourceName, asset)).foreach(previous => size -= previous.size)
+    size += asset.size
+    val eldest = entries.values.iterator
+    while (size > maxSize && eldest.hasNext) {
+      size -= eldest.next.size
+      eldest.remove()
+    }
+  }
+
+}
+
+private[controllers] object AssetCache {
+
+  /**
+   * Marks an asset too large to be cached.
+   */
+  val NotCacheable = CachedAsset(Array.empty[Byte], None, None, Map.empty)
+
+  /**
+   * The ETag of an asset gzipped in memory, derived from the ETag of the asset.
+   */
+  def gzippedEtag(etag: String): String = etag.stripSuffix("\"") + "-gzip\""
+
+  /**
+   * Reads a resource, unless it is larger than maxSize.
+   */
+  def read(url: java.net.URL, maxSize: Long): Option[Array[Byte]] = url.getProtocol match {
+    case "file" =>
+      // The length of a file is known without opening it
+      scala.util.Try(new File(url.toURI)).toOption.filter(file => file.isFile && file.length <= maxSize).map(Resource.fromFile(_).byteArray)
+    case _ =>
+      val connection = url.openConnection
+      val in = connection.getInputStream
+      try {
+        Some(connection.getContentLength).filter(length => length >= 0 && length <= maxSize).map(_ => Resource.fromInputStream(in).byteArray)
+      } finally {
+        in.close()
+      }
+  }
+
+  def gzip(bytes: Array[Byte]): Array[Byte] = {
+    val out = new java.io.ByteArrayOutputStream(bytes.length)
+    val gzip = new java.util.zip.GZIPOutputStream(out)
+    gzip.write(bytes)
+    gzip.close()
+    out.toByteArray
+  }
+
+}
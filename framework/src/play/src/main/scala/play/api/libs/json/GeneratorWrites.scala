@@ -0,0 +1,153 @@
+package play.api.libs.json
+
+import java.io.{ ByteArrayOutputStream, OutputStream }
+
+import org.codehaus.jackson.JsonGenerator
+
+import scala.annotation.implicitNotFound
+
+import play.api.http.{ ContentTypes, Writeable }
+import play.api.mvc.Codec
+
+/**
+ * Json serializer writing directly to a Jackson JsonGenerator, without building a JsValue.
+ *
+ * Instances for case classes are generated by `Json.generatorWrites`. Any type with a `Writes` can be serialized,
+ * through its JsValue.
+ */
+@implicitNotFound(
+  "No Json generator writer found for type ${A}. Try to implement an implicit GeneratorWrites or Writes for this type."
+)
+trait GeneratorWrites[-A] {
+
+  /**
+   * Writes the value to the generator.
+   */
+  def write(a: A, generator: JsonGenerator): Unit
+
+}
+
+object GeneratorWrites extends DefaultGeneratorWrites {
+
+  def apply[A](f: (A, JsonGenerator) => Unit): GeneratorWrites[A] = new GeneratorWrites[A] {
+    def write(a: A, generator: JsonGenerator) = f(a, generator)
+  }
+
+  /**
+   * Writes a value as UTF-8 encoded Json to a stream, which is not closed.
+   */
+  def writeTo[A](a: A, out: OutputStream)(implicit w: GeneratorWrites[A]) {
+    val generator = JacksonJson.jsonGenerator(out)
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+    try {
+      w.write(a, generator)
+    } finally {
+      generator.close()
+    }
+  }
+
+  /**
+   * Converts a value to UTF-8 encoded Json.
+   */
+  def toBytes[A](a: A)(implicit w: GeneratorWrites[A]): Array[Byte] = {
+    val out = new ByteArrayOutputStream
+    writeTo(a, out)
+    out.toByteArray
+  }
+
+  /**
+   * Converts a value to a Json string.
+   */
+  def stringify[A](a: A)(implicit w: GeneratorWrites[A]): String = new String(toBytes(a), "UTF-8")
+
+  /**
+   * Writes values as Json response bodies, without building their JsValue:
+   * {{{
+   * Ok(users)(GeneratorWrites.writeable)
+   * }}}
+   */
+  def writeable[A](implicit w: GeneratorWrites[A]): Writeable[A] = Writeable((a: A) => toBytes(a), Some(ContentTypes.JSON(Codec.utf_8)))
+
+}
+
+trait DefaultGeneratorWrites extends LowPriorityGeneratorWrites {
+
+  implicit object IntGeneratorWrites extends GeneratorWrites[Int] {
+    def write(i: Int, generator: JsonGenerator) = generator.writeNumber(i)
+  }
+
+  implicit object ShortGeneratorWrites extends GeneratorWrites[Short] {
+    def write(s: Short, generator: JsonGenerator) = generator.writeNumber(s)
+  }
+
+  implicit object LongGeneratorWrites extends GeneratorWrites[Long] {
+    def write(l: Long, generator: JsonGenerator) = generator.writeNumber(l)
+  }
+
+  implicit object FloatGeneratorWrites extends GeneratorWrites[Float] {
+    def write(f: Float, generator: JsonGenerator) = generator.writeNumber(f)
+  }
+
+  implicit object DoubleGeneratorWrites extends GeneratorWrites[Double] {
+    def write(d: Double, generator: JsonGenerator) = generator.writeNumber(d)
+  }
+
+  implicit object BigDecimalGeneratorWrites extends GeneratorWrites[BigDecimal] {
+    def write(d: BigDecimal, generator: JsonGenerator) = generator.writeNumber(d.bigDecimal)
+  }
+
+  implicit object BooleanGeneratorWrites extends GeneratorWrites[Boolean] {
+    def write(b: Boolean, generator: JsonGenerator) = generator.writeBoolean(b)
+  }
+
+  implicit object StringGeneratorWrites extends GeneratorWrites[String] {
+    def write(s: String, generator: JsonGenerator) = generator.writeString(s)
+  }
+
+  implicit object JsValueGeneratorWrites extends GeneratorWrites[JsValue] {
+    private val serializer = new JsValueSerializer
+    def write(json: JsValue, generator: JsonGenerator) = serializer.serialize(json, generator, null)
+  }
+
+  implicit def optionGeneratorWrites[A](implicit w: GeneratorWrites[A]): GeneratorWrites[Option[A]] = GeneratorWrites[Option[A]] { (o, generator) =>
+    if (o.isDefined) w.write(o.get, generator) else generator.writeNull()
+  }
+
+  implicit def traversableGeneratorWrites[A](implicit w: GeneratorWrites[A]): GeneratorWrites[Traversable[A]] = GeneratorWrites[Traversable[A]] { (as, generator) =>
+    generator.writeStartArray()
+    as.foreach(w.write(_, generator))
+    generator.writeEndArray()
+  }
+
+  implicit def arrayGeneratorWrites[A](implicit w: GeneratorWrites[A]): GeneratorWrites[Array[A]] = GeneratorWrites[Array[A]] { (as, generator) =>
+    generator.writeStartArray()
+    var i = 0
+    while (i < as.length) {
+      w.write(as(i), generator)
+      i += 1
+    }
+    generator.writeEndArray()
+  }
+
+  implicit def mapGeneratorWrites[V](implicit w: GeneratorWrites[V]): GeneratorWrites[collection.immutable.Map[String, V]] = GeneratorWrites[collection.immutable.Map[String, V]] { (m, generator) =>
+    generator.writeStartObject()
+    m.foreach {
+      case (key, value) =>
+        generator.writeFieldName(key)
+        w.write(value, generator)
+    }
+    generator.writeEndObject()
+  }
+
+}
+
+trait LowPriorityGeneratorWrites {
+
+  /**
+   * Writes a value through its JsValue.
+   */
+  implicit def writesGeneratorWrites[A](implicit w: Writes[A]): GeneratorWrites[A] = GeneratorWrites[A] { (a, generator) =>
+    GeneratorWrites.JsValueGeneratorWrites.write(w.writes(a), generator)
+  }
+
+}
@@ -866,5 +866,199 @@ object JsMacroImpl {
         }
       }
     }
-  
-}
\ No newline at end of file
+
+  def generatorWritesImpl[A : c.WeakTypeTag](c: Context) : c.Expr[GeneratorWrites[A]] = {
+    import c.universe._
+    import c.universe.Flag._
+
+    val companioned = weakTypeOf[A].typeSymbol
+    val companionSymbol = companioned.companionSymbol
+    val companionType = companionSymbol.typeSignature
+
+    val libsPkg = Select(Select(Ident(newTermName("play")), "api"), "libs")
+    val jsonPkg = Select(libsPkg, "json")
+    val utilPkg = Select(jsonPkg, "util")
+
+    val generatorWritesSelect = Select(jsonPkg, "GeneratorWrites")
+    val lazyHelperSelect = Select(utilPkg, newTypeName("LazyHelper"))
+
+    companionType.declaration(stringToTermName("unapply")) match {
+      case NoSymbol => c.abort(c.enclosingPosition, "No unapply function found")
+      case s => 
+        val unapply = s.asMethod
+        val unapplyReturnTypes = unapply.returnType match { 
+          case TypeRef(_, _, args) => 
+            args.head match {
+              case t @ TypeRef(_, _, Nil) => Some(List(t))
+              case t @ TypeRef(_, _, args) => 
+                if(t <:< typeOf[Option[_]]) Some(List(t))
+                else if(t <:< typeOf[Seq[_]]) Some(List(t))
+                else if(t <:< typeOf[Set[_]]) Some(List(t))
+                else if(t <:< typeOf[Map[_,_]]) Some(List(t))
+                else if(t <:< typeOf[Product]) Some(args)
+              case _ => None
+            }
+          case _ => None
+        }
+
+        companionType.declaration(stringToTermName("apply")) match {
+          case NoSymbol => c.abort(c.enclosingPosition, "No apply function found")
+          case s => 
+            // searches apply method corresponding to unapply
+            val applies = s.asMethod.alternatives
+            val apply = applies.collectFirst{ 
+              case (apply: MethodSymbol) if(apply.paramss.headOption.map(_.map(_.asTerm.typeSignature)) == unapplyReturnTypes) => apply 
+            }
+            apply match {
+              case Some(apply) =>
+                val params = apply.paramss.head //verify there is a single parameter group
+
+                val inferedImplicits = params.map(_.typeSignature).map{ implType =>      
+
+                  val (isRecursive, tpe) = implType match {
+                    case TypeRef(_, t, args) => 
+                      // Option[_] needs special treatment because None fields are omitted
+                      if(implType.typeConstructor <:< typeOf[Option[_]].typeConstructor) 
+                        (args.exists{ a => a.typeSymbol == companioned }, args.head)
+                      else (args.exists{ a => a.typeSymbol == companioned }, implType)
+                    case TypeRef(_, t, _) => 
+                      (false, implType)
+                  }
+
+                  // builds generator writes implicit from expected type
+                  val neededImplicitType = appliedType(weakTypeOf[GeneratorWrites[_]].typeConstructor, tpe::Nil)
+                  // infers implicit
+                  val neededImplicit = c.inferImplicitValue(neededImplicitType)
+                  (implType, neededImplicit, isRecursive, tpe)
+                }
+
+                // if any implicit is missing, abort
+                // else goes on
+                inferedImplicits.collect { case (t, impl, rec, _) if(impl == EmptyTree && !rec) => t } match {
+                  case List() => 
+                    val namedImplicits = params.map(_.name).zip(inferedImplicits)
+
+                    val helperMember = Select( This(tpnme.EMPTY), "lazyStuff")
+
+                    var hasRec = false
+
+                    val value = newTermName(c.fresh("value$"))
+                    val generator = newTermName(c.fresh("generator$"))
+
+                    // writes each field: generator.writeFieldName(name); impl.write(value.name, generator)
+                    val writeFields = namedImplicits.map {
+                      case (name, (t, impl, rec, tpe)) => 
+                        val writer = 
+                          if(!rec) impl
+                          else {
+                            hasRec = true
+                            if(t.typeConstructor <:< typeOf[Option[_]].typeConstructor) helperMember
+                            else if(tpe.typeConstructor <:< typeOf[Map[_, _]].typeConstructor) 
+                              Apply(Select(generatorWritesSelect, "mapGeneratorWrites"), List(helperMember))
+                            else if(tpe.typeConstructor <:< typeOf[Traversable[_]].typeConstructor) 
+                              Apply(Select(generatorWritesSelect, "traversableGeneratorWrites"), List(helperMember))
+                            else helperMember
+                          }
+
+                        val field = Select(Ident(value), name)
+                        val writeFieldName = Apply(
+                          Select(Ident(generator), "writeFieldName"),
+                          List(Literal(Constant(name.decoded)))
+                        )
+
+                        // None fields are omitted, like writeNullable does
+                        if(t.typeConstructor <:< typeOf[Option[_]].typeConstructor)
+                          If(
+                            Select(field, "isDefined"),
+                            Block(
+                              List(writeFieldName),
+                              Apply(Select(writer, "write"), List(Select(field, "get"), Ident(generator)))
+                            ),
+                            Literal(Constant(()))
+                          )
+                        else
+                          Block(
+                            List(writeFieldName),
+                            Apply(Select(writer, "write"), List(field, Ident(generator)))
+                          )
+                    }
+
+                    // GeneratorWrites[A]{ (value, generator) => ... }
+                    val finalTree = Apply(
+                      TypeApply(Select(generatorWritesSelect, "apply"), List(TypeTree(weakTypeOf[A]))),
+                      List(
+                        Function(
+                          List(
+                            ValDef(Modifiers(PARAM), value, TypeTree(weakTypeOf[A]), EmptyTree),
+                            ValDef(Modifiers(PARAM), generator, TypeTree(typeOf[org.codehaus.jackson.JsonGenerator]), EmptyTree)
+                          ),
+                          Block(
+                            (Apply(Select(Ident(generator), "writeStartObject"), List()) :: writeFields) :+
+                              Apply(Select(Ident(generator), "writeEndObject"), List()),
+                            Literal(Constant(()))
+                          )
+                        )
+                      )
+                    )
+
+                    if(!hasRec) {
+                      c.Expr[GeneratorWrites[A]](finalTree)
+                    } else {
+                      val block = Select(
+                        Block(
+                          ClassDef( 
+                            Modifiers(Flag.FINAL), 
+                            newTypeName("$anon"), 
+                            List(), 
+                            Template(
+                              List(
+                                AppliedTypeTree(
+                                  lazyHelperSelect, 
+                                  List(
+                                    Ident(weakTypeOf[GeneratorWrites[A]].typeSymbol), 
+                                    Ident(weakTypeOf[A].typeSymbol)
+                                  )
+                                )
+                              ), 
+                              emptyValDef, 
+                              List(
+                                DefDef(
+                                  Modifiers(), 
+                                  nme.CONSTRUCTOR, 
+                                  List(), 
+                                  List(List()), 
+                                  TypeTree(), 
+                                  Block(
+                                    Apply(
+                                      Select(Super(This(tpnme.EMPTY), tpnme.EMPTY), nme.CONSTRUCTOR), 
+                                      List()
+                                    )
+                                  )
+                                ),
+                                ValDef(
+                                  Modifiers(Flag.OVERRIDE | Flag.LAZY), 
+                                  newTermName("lazyStuff"), 
+                                  AppliedTypeTree(Ident(weakTypeOf[GeneratorWrites[A]].typeSymbol), List(TypeTree(weakTypeOf[A]))), 
+                                  finalTree
+                                )
+                              )
+                            )
+                          ), 
+                          Apply(Select(New(Ident(newTypeName("$anon"))), nme.CONSTRUCTOR), List())
+                        ), 
+                        newTermName("lazyStuff")
+                      )
+
+                      c.Expr[GeneratorWrites[A]](block)
+                    }
+                  case l => c.abort(c.enclosingPosition, s"No implicit GeneratorWrites for ${l.mkString(", ")} available.")
+                }
+
+              case None => c.abort(c.enclosingPosition, "No apply function found matching unapply parameters") 
+            }
+            
+        }
+    }
+  }
+
+}
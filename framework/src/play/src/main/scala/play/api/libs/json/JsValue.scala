@@ -160,13 +160,30 @@ case class JsObject(fields: Seq[(String, JsValue)]) extends JsValue {
 
   lazy val value: Map[String, JsValue] = fields.toMap
 
+  private lazy val fieldsSet: Set[(String, JsValue)] = fields.toSet
+
   /**
    * Return the property corresponding to the fieldName, supposing we have a JsObject.
    *
    * @param fieldName the name of the property to lookup
    * @return the resulting JsValue. If the current node is not a JsObject or doesn't have the property, a JsUndefined will be returned.
    */
-  override def \(fieldName: String): JsValue = value.get(fieldName).getOrElse(super.\(fieldName))
+  override def \(fieldName: String): JsValue = get(fieldName).getOrElse(super.\(fieldName))
+
+  /**
+   * Return the property corresponding to the fieldName, the last one if it is repeated.
+   *
+   * Small objects are scanned, while larger ones are looked up through `value`, built by the first lookup, so that
+   * reading all the fields of a large object doesn't take a quadratic time.
+   */
+  private[json] def get(fieldName: String): Option[JsValue] = {
+    if (fields.lengthCompare(JsObject.IndexThreshold) > 0) value.get(fieldName)
+    else {
+      var found: Option[JsValue] = None
+      fields.foreach { field => if (field._1 == fieldName) found = Some(field._2) }
+      found
+    }
+  }
 
   /**
    * Lookup for fieldName in the current object and all descendants.
@@ -190,13 +207,15 @@ case class JsObject(fields: Seq[(String, JsValue)]) extends JsValue {
    */
   def values: Set[JsValue] = fields.map(_._2).toSet
 
-  def fieldSet: Set[(String, JsValue)] = fields.toSet
+  def fieldSet: Set[(String, JsValue)] = fieldsSet
 
   /**
    * Merge this object with an other one. Values from other override value of the current object.
    */
-  def ++(other: JsObject): JsObject =
-    JsObject(fields.filterNot(field => other.keys(field._1)) ++ other.fields)
+  def ++(other: JsObject): JsObject = {
+    val otherKeys = other.keys
+    JsObject(fields.filterNot(field => otherKeys(field._1)) ++ other.fields)
+  }
 
   /**
    * removes one field from JsObject
@@ -286,6 +305,15 @@ case class JsObject(fields: Seq[(String, JsValue)]) extends JsValue {
 
 }
 
+object JsObject extends (Seq[(String, JsValue)] => JsObject) {
+
+  /**
+   * The number of fields beyond which fields are looked up through an index rather than scanned.
+   */
+  private[json] val IndexThreshold = 16
+
+}
+
 // -- Serializers.
 
 @JsonCachable
@@ -469,6 +497,8 @@ private[json] object JacksonJson{
   // Pass in ByteArrayInputStream to work around https://github.com/FasterXML/jackson-core/issues/42
   private[this] def jsonParser(data: Array[Byte]): JsonParser = jsonFactory.createJsonParser(new ByteArrayInputStream(data))
 
+  def jsonGenerator(out: java.io.OutputStream): JsonGenerator = jsonFactory.createJsonGenerator(out, org.codehaus.jackson.JsonEncoding.UTF8)
+
   def parseJsValue(data: Array[Byte]): JsValue = {
     mapper.readValue(jsonParser(data), classOf[JsValue])
   }
@@ -208,4 +208,20 @@ object Json {
    */
   def format[A] = macro JsMacroImpl.formatImpl[A]
 
+  /**
+   * Creates a GeneratorWrites[T] by resolving case class fields & required implicits at COMPILE-time
+   *
+   * The generated writer streams the fields straight to a Jackson generator, without building a JsObject.
+   * Fields having no GeneratorWrites fall back on their Writes.
+   * {{{
+   *   import play.api.libs.json.Json
+   *
+   *   case class User(name: String, age: Int)
+   *
+   *   implicit val userGeneratorWrites = Json.generatorWrites[User]
+   *   GeneratorWrites.stringify(User("toto", 32)) // {"name":"toto","age":32}
+   * }}}
+   */
+  def generatorWrites[A] = macro JsMacroImpl.generatorWritesImpl[A]
+
 }
@@ -0,0 +1,200 @@
+package play.api.libs.json
+
+import java.io.ByteArrayOutputStream
+
+import play.api.libs.iteratee._
+import play.api.libs.iteratee.Enumeratee.CheckDone
+
+/**
+ * Enumeratees parsing a stream of bytes into Json values, one value at a time.
+ *
+ * Only the bytes of the value being read are kept in memory, so that a stream of any length is parsed in constant
+ * memory, as long as each of its values is small. For example, to process the elements of a large Json array returned
+ * by a web service:
+ * {{{
+ * WS.url(url).get { headers =>
+ *   JsonEnumeratee.array() &>> Iteratee.foreach[JsValue](event => store(event))
+ * }
+ * }}}
+ *
+ * Invalid Json fails the iteratee.
+ */
+object JsonEnumeratee {
+
+  /**
+   * The default largest number of bytes of a value.
+   */
+  val DefaultMaxValueLength: Int = 1024 * 100
+
+  /**
+   * Parses the elements of a Json array, such as `[{"id":1},{"id":2}]`, emitting each element as soon as it is read.
+   *
+   * @param maxValueLength the largest number of bytes of an element, beyond which the iteratee fails
+   */
+  def array(maxValueLength: Int = DefaultMaxValueLength): Enumeratee[Array[Byte], JsValue] = parse(maxValueLength, inArray = true)
+
+  /**
+   * Parses Json values separated by whitespace, such as newline-delimited Json, emitting each value as soon as it is
+   * read.
+   *
+   * @param maxValueLength the largest number of bytes of a value, beyond which the iteratee fails
+   */
+  def values(maxValueLength: Int = DefaultMaxValueLength): Enumeratee[Array[Byte], JsValue] = parse(maxValueLength, inArray = false)
+
+  private def parse(maxValueLength: Int, inArray: Boolean): Enumeratee[Array[Byte], JsValue] = new CheckDone[Array[Byte], JsValue] {
+
+    def step[A](splitter: Splitter)(k: K[JsValue, A]): K[Array[Byte], Iteratee[JsValue, A]] = {
+
+      case in @ Input.El(bytes) => splitter.push(bytes) match {
+        case Left(error) => Error(error, in)
+        case Right(values) if values.isEmpty => Cont(step(splitter)(k))
+        case Right(values) =>
+          new CheckDone[Array[Byte], JsValue] { def continue[A](k: K[JsValue, A]) = Cont(step(splitter)(k)) } &> Iteratee.flatten(Enumerator(values: _*)(Cont(k)))
+      }
+
+      case in @ Input.Empty =>
+        new CheckDone[Array[Byte], JsValue] { def continue[A](k: K[JsValue, A]) = Cont(step(splitter)(k)) } &> k(in)
+
+      case Input.EOF => splitter.end() match {
+        case Left(error) => Error(error, Input.EOF)
+        case Right(values) => Done(Iteratee.flatten(Enumerator(values: _*)(Cont(k))), Input.EOF)
+      }
+
+    }
+
+    def continue[A](k: K[JsValue, A]) = Cont(step(new Splitter(maxValueLength, inArray))(k))
+
+  }
+
+  /**
+   * Splits a stream of bytes into Json values, following the nesting of objects, arrays and strings.
+   *
+   * The structural characters of Json are ASCII, and never appear in the multi-byte sequences of UTF-8, so that the
+   * bytes can be scanned without being decoded.
+   *
+   * @param inArray whether the values are the elements of an array, rather than separated by whitespace
+   */
+  private class Splitter(maxValueLength: Int, inArray: Boolean) {
+
+    private val buffer = new ByteArrayOutputStream
+
+    // Whether the array was opened, then closed
+    private var opened = !inArray
+    private var closed = false
+
+    // Whether an element was read since the array was opened or since the last comma, and whether a comma was read
+    // since the last element
+    private var elementRead = false
+    private var separated = false
+
+    // The state of the value being read
+    private var reading = false
+    private var depth = 0
+    private var inString = false
+    private var escaped = false
+
+    /**
+     * Reads a chunk of bytes, returning the values it completes.
+     */
+    def push(bytes: Array[Byte]): Either[String, Seq[JsValue]] = {
+      val values = Seq.newBuilder[JsValue]
+      var start = 0
+      var i = 0
+
+      def complete(end: Int): Option[String] = {
+        buffer.write(bytes, start, end - start)
+        reading = false
+        val value = buffer.toByteArray
+        buffer.reset()
+        elementRead = inArray
+        if (value.length > maxValueLength) Some("Json value longer than " + maxValueLength + " bytes")
+        else scala.util.control.Exception.allCatch.either(JacksonJson.parseJsValue(value)).fold(
+          e => Some("Invalid Json: " + e.getMessage),
+          json => { values += json; None }
+        )
+      }
+
+      def begin(): Option[String] = {
+        if (elementRead) Some("Expecting a comma between the elements of the Json array")
+        else {
+          reading = true
+          separated = false
+          start = i
+          None
+        }
+      }
+
+      def unexpected(c: Char) = Some("Unexpected character: " + c)
+
+      while (i < bytes.length) {
+        val c = bytes(i).toChar
+        var error: Option[String] = None
+        if (inString) {
+          if (escaped) escaped = false
+          else if (c == '\\') escaped = true
+          else if (c == '"') {
+            inString = false
+            if (depth == 0) error = complete(i + 1)
+          }
+        } else if (!opened) {
+          if (c == '[') opened = true
+          else if (!Character.isWhitespace(c)) error = Some("Expecting a Json array")
+        } else if (closed) {
+          if (!Character.isWhitespace(c)) error = Some("Unexpected character after the Json array: " + c)
+        } else if (c == '"') {
+          // A value being read at depth 0 is a number or a literal
+          if (!reading) error = begin() else if (depth == 0) error = unexpected(c)
+          inString = true
+        } else if (c == '{' || c == '[') {
+          if (!reading) error = begin() else if (depth == 0) error = unexpected(c)
+          depth += 1
+        } else if (c == '}' || c == ']') {
+          if (depth > 0) {
+            depth -= 1
+            if (depth == 0) error = complete(i + 1)
+          } else {
+            if (reading) error = complete(i)
+            if (error.isEmpty) {
+              if (c == ']' && inArray) {
+                if (separated) error = Some("Unexpected comma before the end of the Json array") else closed = true
+              } else error = unexpected(c)
+            }
+          }
+        } else if (c == ',') {
+          if (depth == 0) {
+            if (reading) error = complete(i)
+            if (error.isEmpty) {
+              if (elementRead) {
+                elementRead = false
+                separated = true
+              } else error = unexpected(c)
+            }
+          }
+        } else if (Character.isWhitespace(c)) {
+          if (depth == 0 && reading) error = complete(i)
+        } else if (!reading) {
+          error = begin()
+        }
+        if (error.isDefined) return Left(error.get)
+        i += 1
+      }
+
+      if (reading) {
+        if (buffer.size + bytes.length - start > maxValueLength) return Left("Json value longer than " + maxValueLength + " bytes")
+        buffer.write(bytes, start, bytes.length - start)
+      }
+      Right(values.result())
+    }
+
+    /**
+     * Ends the stream, returning the value it completes.
+     */
+    def end(): Either[String, Seq[JsValue]] = {
+      if (inString || depth > 0 || (inArray && !closed)) Left("Unexpected end of Json input")
+      else if (reading) push(Array(' '.toByte))
+      else Right(Nil)
+    }
+
+  }
+
+}
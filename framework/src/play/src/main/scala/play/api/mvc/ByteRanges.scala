@@ -0,0 +1,88 @@
+package play.api.mvc
+
+import play.api.http.HeaderNames._
+import play.api.http.Status._
+import play.api.libs.iteratee._
+
+/**
+ * Serves byte ranges of file results, as requested by the `Range` header.
+ */
+private[play] object ByteRanges {
+
+  /**
+   * The largest number of ranges served for a single request, beyond which the whole file is sent.
+   */
+  val MaxRanges = 16
+
+  /**
+   * Parses a `Range` header value into inclusive ranges of bytes, for a content of the given length.
+   *
+   * @return None if the header is not a valid bytes range, or the satisfiable ranges
+   */
+  def parse(range: String, length: Long): Option[Seq[(Long, Long)]] = {
+    Some(range.trim).filter(_.startsWith("bytes=")).map(_.drop(6).split(',').map(_.trim).filterNot(_.isEmpty)).filter(_.size <= MaxRanges).flatMap { specs =>
+      val ranges = specs.map { spec =>
+        spec.split("-", -1) match {
+          case Array("", suffix) => parseLong(suffix).map(s => Some((math.max(length - s, 0L), length - 1)).filter(_ => s > 0 && length > 0))
+          case Array(first, "") => parseLong(first).map(f => Some((f, length - 1)).filter(_ => f < length))
+          case Array(first, last) => for (f <- parseLong(first); l <- parseLong(last) if f <= l) yield Some((f, math.min(l, length - 1))).filter(_ => f < length)
+          case _ => None
+        }
+      }
+      if (specs.isEmpty || ranges.exists(_.isEmpty)) None else Some(ranges.flatMap(_.get).toSeq)
+    }
+  }
+
+  private def parseLong(s: String): Option[Long] = {
+    Some(s).filter(v => !v.isEmpty && v.forall(Character.isDigit)).flatMap(v => scala.util.Try(v.toLong).toOption)
+  }
+
+  /**
+   * Serves the ranges requested by the request, if any, from a file result.
+   *
+   * @return the partial content or range not satisfiable result, or None if the whole result must be sent
+   */
+  def apply(request: RequestHeader, result: Result): Option[PlainResult] = result match {
+    case SimpleResult(ResponseHeader(OK, headers), file: FileEnumerator) if !headers.contains(CONTENT_ENCODING) => {
+      for {
+        range <- request.headers.get(RANGE)
+        if request.headers.get(IF_RANGE).forall(ifRange => headers.get(ETAG).orElse(headers.get(LAST_MODIFIED)).exists(_ == ifRange))
+        ranges <- parse(range, file.length)
+      } yield {
+        val common = headers - CONTENT_LENGTH + (ACCEPT_RANGES -> "bytes")
+        ranges match {
+          case Seq() => SimpleResult(
+            ResponseHeader(REQUESTED_RANGE_NOT_SATISFIABLE, common - CONTENT_TYPE ++ Map(CONTENT_RANGE -> ("bytes */" + file.length), CONTENT_LENGTH -> "0")),
+            Enumerator(Array.empty[Byte]) &> Enumeratee.onIterateeDone(file.onClose))
+          case Seq((start, end)) => SimpleResult(
+            ResponseHeader(PARTIAL_CONTENT, common ++ Map(CONTENT_RANGE -> contentRange(start, end, file.length), CONTENT_LENGTH -> (end - start + 1).toString)),
+            file.slice(start, end, file.onClose))
+          case _ => multipart(common, file, ranges)
+        }
+      }
+    }
+    case _ => None
+  }
+
+  private def contentRange(start: Long, end: Long, length: Long) = "bytes " + start + "-" + end + "/" + length
+
+  private def multipart(headers: Map[String, String], file: FileEnumerator, ranges: Seq[(Long, Long)]): PlainResult = {
+    val boundary = java.util.UUID.randomUUID.toString.replace("-", "")
+    val contentType = headers.get(CONTENT_TYPE)
+    val parts = ranges.map {
+      case (start, end) =>
+        val partHeader = ("\r\n--" + boundary + "\r\n" + contentType.map(CONTENT_TYPE + ": " + _ + "\r\n").getOrElse("") +
+          CONTENT_RANGE + ": " + contentRange(start, end, file.length) + "\r\n\r\n").getBytes("US-ASCII")
+        (partHeader, file.slice(start, end))
+    }
+    val end = ("\r\n--" + boundary + "--\r\n").getBytes("US-ASCII")
+    val length = parts.map { case (partHeader, slice) => partHeader.length + slice.length }.sum + end.length
+    val body = parts.foldLeft(Enumerator[Array[Byte]]()) {
+      case (enumerator, (partHeader, slice)) => enumerator >>> Enumerator(partHeader) >>> slice
+    } >>> Enumerator(end)
+    SimpleResult(
+      ResponseHeader(PARTIAL_CONTENT, headers ++ Map(CONTENT_TYPE -> ("multipart/byteranges; boundary=" + boundary), CONTENT_LENGTH -> length.toString)),
+      body &> Enumeratee.onIterateeDone(file.onClose))
+  }
+
+}
@@ -382,6 +382,27 @@ trait BodyParsers {
      */
     def json: BodyParser[JsValue] = json(DEFAULT_MAX_TEXT_LENGTH)
 
+    /**
+     * Parse the elements of a Json array body one at a time, feeding them to an iteratee, without checking the
+     * Content-Type. Only the element being read is kept in memory, so that the body length is not limited.
+     *
+     * @param maxElementLength Max length allowed for an element, or returns BadRequest HTTP response.
+     * @param consumer The iteratee consuming the elements.
+     */
+    def jsonArray[A](maxElementLength: Int = DEFAULT_MAX_TEXT_LENGTH)(consumer: RequestHeader => Iteratee[JsValue, A]): BodyParser[A] = BodyParser("jsonArray, maxElementLength=" + maxElementLength) { request =>
+      def badRequest = Play.maybeApplication.map(_.global.onBadRequest(request, "Invalid Json")).getOrElse(Results.BadRequest)
+      def recover(it: Iteratee[Array[Byte], Iteratee[JsValue, A]]): Iteratee[Array[Byte], Either[Result, Iteratee[JsValue, A]]] = it.pureFlatFold[Array[Byte], Either[Result, Iteratee[JsValue, A]]] {
+        case Step.Done(elements, in) => Done(Right(elements), in)
+        case Step.Cont(k) => Cont(in => recover(k(in)))
+        case Step.Error(_, in) => Done(Left(badRequest), in)
+      }
+      // Only the errors of the parser are a bad request, while those of the consumer are left as they are
+      recover(JsonEnumeratee.array(maxElementLength).applyOn(consumer(request))).flatMap[Either[Result, A]] {
+        case Left(result) => Done(Left(result), Empty)
+        case Right(elements) => Done[Array[Byte], Iteratee[JsValue, A]](elements, Empty).joinI.map(Right(_))
+      }
+    }
+
     // -- Empty parser
 
     /**
@@ -0,0 +1,58 @@
+package play.api.mvc
+
+import play.api.libs.iteratee._
+
+import java.nio.ByteBuffer
+import scala.concurrent.Future
+
+/**
+ * The body of a result serving a file, or a part of a file.
+ *
+ * It enumerates the file content with positioned reads, but lets the server write the file straight to the
+ * connection (using `sendfile` when possible) instead of copying it through the heap, when the result body is sent
+ * unchanged.
+ *
+ * @param file the file to send
+ * @param onClose called once the file has been sent
+ * @param position the position of the first byte to send
+ * @param count the number of bytes to send, or all the remaining bytes of the file
+ */
+private[play] class FileEnumerator(val file: java.io.File, val onClose: () => Unit = () => (), val position: Long = 0, count: Option[Long] = None) extends Enumerator[Array[Byte]] {
+
+  /**
+   * The number of bytes to send.
+   */
+  def length: Long = count.getOrElse(file.length - position)
+
+  def apply[A](i: Iteratee[Array[Byte], A]): Future[Iteratee[Array[Byte], A]] = (read &> Enumeratee.onIterateeDone(onClose)).apply(i)
+
+  private def read: Enumerator[Array[Byte]] = {
+    val channel = new java.io.RandomAccessFile(file, "r").getChannel
+    val end = position + length
+    var offset = position
+    Enumerator.fromCallback(() => {
+      val chunk = if (offset >= end) None else {
+        val buffer = ByteBuffer.allocate(math.min(FileEnumerator.ChunkSize, end - offset).toInt)
+        channel.read(buffer, offset) match {
+          case read if read <= 0 => None
+          case read =>
+            offset += read
+            Some(if (read == buffer.capacity) buffer.array else java.util.Arrays.copyOf(buffer.array, read))
+        }
+      }
+      Future.successful(chunk)
+    }, channel.close)
+  }
+
+  /**
+   * A part of this file, for the given range of bytes.
+   */
+  def slice(start: Long, end: Long, onClose: () => Unit = () => ()): FileEnumerator = new FileEnumerator(file, onClose, position + start, Some(end - start + 1))
+
+}
+
+private[play] object FileEnumerator {
+
+  val ChunkSize = 1024 * 8
+
+}
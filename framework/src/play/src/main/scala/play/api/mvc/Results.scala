@@ -22,12 +22,65 @@ import play.core.Execution.internalContext
  */
 case class ResponseHeader(status: Int, headers: Map[String, String] = Map.empty) {
 
+  /**
+   * The HTTP headers, without the `Set-Cookie` header of the cookies added by `withCookies`.
+   */
+  private[play] def plainHeaders: Map[String, String] = headers match {
+    case h: CookieHeaders => h.plain
+    case h => h
+  }
+
+  /**
+   * The cookies added by `withCookies`, most recent first.
+   */
+  private[play] def cookies: Seq[Cookie] = headers match {
+    case h: CookieHeaders => h.cookies
+    case _ => Nil
+  }
+
+  /**
+   * All the cookies set by this response. Like when decoding the `Set-Cookie` header, a cookie overrides the
+   * cookies following it with the same name, path and domain.
+   */
+  private[play] def setCookies: Seq[Cookie] = {
+    val all = cookies ++ plainHeaders.get(SET_COOKIE).map(Cookies.decode(_)).getOrElse(Nil)
+    def same(a: Cookie, b: Cookie) = a.name.equalsIgnoreCase(b.name) && a.path == b.path && a.domain.map(_.toLowerCase) == b.domain.map(_.toLowerCase)
+    all.zipWithIndex.collect { case (cookie, i) if !all.take(i).exists(same(cookie, _)) => cookie }
+  }
+
+  private[play] def withCookies(cookies: Seq[Cookie]): ResponseHeader = copy(headers = new CookieHeaders(plainHeaders, cookies ++ this.cookies))
+
   override def toString = {
     status + ", " + headers
   }
 
 }
 
+/**
+ * The headers of a result, keeping the cookies added to the result as a list. They are only encoded into the
+ * `Set-Cookie` header when it is read, so that adding cookies doesn't decode and encode that header each time, and
+ * the server can write the cookies without parsing that header back.
+ *
+ * @param plain the headers, without the added cookies
+ * @param cookies the added cookies, most recent first
+ */
+private[play] class CookieHeaders(val plain: Map[String, String], val cookies: Seq[Cookie]) extends Map[String, String] {
+
+  private lazy val all = plain + (SET_COOKIE -> Cookies.merge(plain.get(SET_COOKIE).getOrElse(""), cookies))
+
+  def get(key: String): Option[String] = if (key == SET_COOKIE) all.get(key) else plain.get(key)
+
+  def iterator: Iterator[(String, String)] = all.iterator
+
+  def +[B >: String](kv: (String, B)): Map[String, B] = kv match {
+    case (key, value: String) if key != SET_COOKIE => new CookieHeaders(plain + (key -> value), cookies)
+    case _ => all + kv
+  }
+
+  def -(key: String): Map[String, String] = if (key == SET_COOKIE) plain - key else new CookieHeaders(plain - key, cookies)
+
+}
+
 /**
  * Any Action result.
  */
@@ -236,7 +289,7 @@ trait PlainResult extends Result with WithHeaders[PlainResult] {
    * @return the new result
    */
   def discardingCookies(cookies: DiscardingCookie*): PlainResult = {
-    withHeaders(SET_COOKIE -> Cookies.merge(header.headers.get(SET_COOKIE).getOrElse(""), cookies.map(_.toCookie)))
+    withCookies(cookies.map(_.toCookie): _*)
   }
 
   /**
@@ -348,6 +401,10 @@ case class SimpleResult[A](header: ResponseHeader, body: Enumerator[A])(implicit
     copy(header = header.copy(headers = header.headers ++ headers))
   }
 
+  override def withCookies(cookies: Cookie*) = {
+    copy(header = header.withCookies(cookies))
+  }
+
   override def toString = {
     "SimpleResult(" + header + ")"
   }
@@ -381,6 +438,10 @@ case class ChunkedResult[A](header: ResponseHeader, chunks: Iteratee[A, Unit] =>
     copy(header = header.copy(headers = header.headers ++ headers))
   }
 
+  override def withCookies(cookies: Cookie*) = {
+    copy(header = header.withCookies(cookies))
+  }
+
 }
 
 /**
@@ -618,6 +679,8 @@ trait Results {
     /**
      * Send a file.
      *
+     * The server answers `Range` requests for this file with the requested bytes ranges.
+     *
      * @param content The file to send
      * @param inline Use Content-Disposition inline or attachment.
      * @param fileName function to retrieve the file name (only used for Content-Disposition attachment)
@@ -626,9 +689,10 @@ trait Results {
       SimpleResult(
         header = ResponseHeader(OK, Map(
           CONTENT_LENGTH -> content.length.toString,
-          CONTENT_TYPE -> play.api.libs.MimeTypes.forFileName(content.getName).getOrElse(play.api.http.ContentTypes.BINARY)
+          CONTENT_TYPE -> play.api.libs.MimeTypes.forFileName(content.getName).getOrElse(play.api.http.ContentTypes.BINARY),
+          ACCEPT_RANGES -> "bytes"
         ) ++ (if (inline) Map.empty else Map(CONTENT_DISPOSITION -> ("""attachment; filename="%s"""".format(fileName(content)))))),
-        Enumerator.fromFile(content) &> Enumeratee.onIterateeDone(onClose)
+        new FileEnumerator(content, onClose)
       )
     }
 
@@ -1,9 +1,14 @@
 package play.core.j
 
+import play.api._
 import play.api.mvc._
 import play.api.libs.json._
+import play.api.libs.iteratee._
+import play.api.libs.iteratee.Input._
 import play.api.libs.Files.{ TemporaryFile }
 
+import org.codehaus.jackson.JsonNode
+
 import scala.xml._
 import scala.collection.JavaConverters._
 
@@ -21,7 +26,8 @@ object JavaParsers extends BodyParsers {
       json: Option[JsValue] = None,
       xml: Option[NodeSeq] = None,
       multipart: Option[MultipartFormData[TemporaryFile]] = None,
-      override val isMaxSizeExceeded: Boolean = false) extends RequestBody {
+      override val isMaxSizeExceeded: Boolean = false,
+      jsonNode: Option[JsonNode] = None) extends RequestBody {
 
     override lazy val asFormUrlEncoded = {
       urlFormEncoded.map(_.mapValues(_.toArray).asJava).orNull
@@ -44,12 +50,9 @@ object JavaParsers extends BodyParsers {
     }
 
     override lazy val asJson = {
-      import org.codehaus.jackson._
-      import org.codehaus.jackson.map._
-
-      json.map { json =>
-        new ObjectMapper().readValue(json.toString, classOf[JsonNode])
-      }.orNull
+      jsonNode.orElse(json.map { json =>
+        play.libs.Json.mapper().readValue(json.toString, classOf[JsonNode])
+      }).orNull
     }
 
     override lazy val asXml = {
@@ -95,22 +98,45 @@ object JavaParsers extends BodyParsers {
     )
   }
 
-  def json(maxLength: Int): BodyParser[RequestBody] = parse.maxLength(orDefault(maxLength), parse.json(Integer.MAX_VALUE)).map {
+  def json(maxLength: Int): BodyParser[RequestBody] = parse.maxLength(orDefault(maxLength), parse.when(
+    _.contentType.exists(m => m == "text/json" || m == "application/json"),
+    jsonNode,
+    request => Play.maybeApplication.map(_.global.onBadRequest(request, "Expecting text/json or application/json body")).getOrElse(Results.BadRequest)
+  )).map {
     _.fold(
       _ => DefaultRequestBody(isMaxSizeExceeded = true),
       json =>
-        DefaultRequestBody(json = Some(json))
+        DefaultRequestBody(jsonNode = Some(json))
     )
   }
 
-  def tolerantJson(maxLength: Int): BodyParser[RequestBody] = parse.maxLength(orDefault(maxLength), parse.tolerantJson(Integer.MAX_VALUE)).map {
+  def tolerantJson(maxLength: Int): BodyParser[RequestBody] = parse.maxLength(orDefault(maxLength), jsonNode).map {
     _.fold(
       _ => DefaultRequestBody(isMaxSizeExceeded = true),
       json =>
-        DefaultRequestBody(json = Some(json))
+        DefaultRequestBody(jsonNode = Some(json))
     )
   }
 
+  /**
+   * Parses the body bytes directly into a Jackson JsonNode with the shared object mapper, without building a JsValue.
+   */
+  private def jsonNode: BodyParser[JsonNode] = BodyParser("json") { request =>
+    Iteratee.consume[Array[Byte]]().map { bytes =>
+      scala.util.control.Exception.allCatch[JsonNode].either {
+        request.charset.filterNot(_.equalsIgnoreCase("utf-8")) match {
+          case Some(charset) => play.libs.Json.mapper().readValue(new String(bytes, charset), classOf[JsonNode])
+          case None => play.libs.Json.mapper().readValue(bytes, classOf[JsonNode])
+        }
+      }.left.map { e =>
+        (Play.maybeApplication.map(_.global.onBadRequest(request, "Invalid Json")).getOrElse(Results.BadRequest), bytes)
+      }
+    }.flatMap {
+      case Left((r, in)) => Done(Left(r), El(in))
+      case Right(json) => Done(Right(json), Empty)
+    }
+  }
+
   def xml(maxLength: Int): BodyParser[RequestBody] = parse.maxLength(orDefault(maxLength), parse.xml(Integer.MAX_VALUE)).map {
     _.fold(
       _ => DefaultRequestBody(isMaxSizeExceeded = true),
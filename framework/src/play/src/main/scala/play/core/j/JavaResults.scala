@@ -16,7 +16,8 @@ object JavaResults extends Results with DefaultWriteables with DefaultContentTyp
   def writeContent(mimeType: String)(implicit codec: Codec): Writeable[Content] = Writeable(content => codec.encode(content.body), Some(ContentTypes.withCharset(mimeType)))
   def writeString(mimeType: String)(implicit codec: Codec): Writeable[String] = Writeable(s => codec.encode(s), Some(ContentTypes.withCharset(mimeType)))
   def writeString(implicit codec: Codec): Writeable[String] = writeString(MimeTypes.TEXT)
-  def writeJson(implicit codec: Codec): Writeable[org.codehaus.jackson.JsonNode] = Writeable(json => codec.encode(json.toString), Some(ContentTypes.JSON))
+  def writeJson(implicit codec: Codec): Writeable[org.codehaus.jackson.JsonNode] = Writeable(json =>
+    if (codec.charset.equalsIgnoreCase("utf-8")) play.libs.Json.toBytes(json) else codec.encode(json.toString), Some(ContentTypes.JSON))
   def writeBytes: Writeable[Array[Byte]] = Writeable.wBytes
   def writeBytes(contentType: String): Writeable[Array[Byte]] = Writeable((bs: Array[Byte]) => bs)(contentTypeOfBytes(contentType))
   def writeEmptyContent: Writeable[Results.EmptyContent] = writeableOf_EmptyContent
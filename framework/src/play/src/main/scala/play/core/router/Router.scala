@@ -7,8 +7,6 @@ import org.apache.commons.lang3.reflect.MethodUtils
 import scala.util.parsing.input._
 import scala.util.parsing.combinator._
 import scala.util.matching._
-import java.net.URI
-import scala.util.control.Exception
 import scala.collection.concurrent.TrieMap
 import play.core.j.JavaActionAnnotations
 
@@ -34,14 +32,7 @@ case class PathPattern(parts: Seq[PathPart]) {
   import java.util.regex._
 
   private def decodeIfEncoded(decode: Boolean, groupCount: Int): Matcher => Either[Throwable, String] = matcher =>
-    Exception.allCatch[String].either {
-      if (decode) {
-        val group = matcher.group(groupCount)
-        // If param is not correctly encoded, get path will return null, so we prepend a / to it
-        new URI("/" + group).getPath.drop(1)
-      } else
-        matcher.group(groupCount)
-    }
+    RoutingTrie.decodeValue(decode, matcher.group(groupCount))
 
   lazy val (regex, groups) = {
     Some(parts.foldLeft("", Map.empty[String, Matcher => Either[Throwable, String]], 0) { (s, e) =>
@@ -95,7 +86,7 @@ object Router {
     trait ParamsExtractor {
       def unapply(request: RequestHeader): Option[RouteParams]
     }
-    def apply(method: String, pathPattern: PathPattern) = new ParamsExtractor {
+    class Matcher(val method: String, val pathPattern: PathPattern) extends ParamsExtractor {
 
       def unapply(request: RequestHeader): Option[RouteParams] = {
         if (method == request.method) {
@@ -109,11 +100,13 @@ object Router {
 
     }
 
+    def apply(method: String, pathPattern: PathPattern) = new Matcher(method, pathPattern)
+
   }
 
   object Include {
 
-    def apply(router: Router.Routes) = new {
+    class Matcher(val router: Router.Routes) {
 
       def unapply(request: RequestHeader): Option[Handler] = {
         router.routes.lift(request)
@@ -121,6 +114,8 @@ object Router {
 
     }
 
+    def apply(router: Router.Routes) = new Matcher(router)
+
   }
 
   case class JavascriptReverseRoute(name: String, f: String)
@@ -0,0 +1,261 @@
+package play.core
+
+import play.api.mvc.{ Handler, RequestHeader }
+import play.core.Router.{ Include, Route, RouteParams }
+
+import java.net.URI
+import java.util.regex.Pattern
+import scala.annotation.tailrec
+import scala.collection.mutable
+import scala.util.control.Exception
+
+/**
+ * A routing table compiled into a segment trie, one trie per HTTP method.
+ *
+ * Static path segments are resolved with a hash lookup, and a regex is only run against a single segment when its
+ * constraint is not the default `[^/]+`. Routes having a dynamic part that may span several segments (such as
+ * `*file`) are attached to the deepest node they share with the request path, and checked with their full
+ * `PathPattern`.
+ *
+ * Declaration order is preserved: when several routes match, the first declared one wins, exactly like the
+ * `PartialFunction` generated by the routes compiler.
+ */
+class RoutingTrie private (methods: Map[String, RoutingTrie.Node], includes: Seq[(Int, Include.Matcher)]) {
+
+  import RoutingTrie._
+
+  /**
+   * Builds the router partial function.
+   *
+   * @param handlers invoked with the index of the matching route and its parameters
+   */
+  def dispatch(handlers: PartialFunction[(Int, RouteParams), Handler]): PartialFunction[RequestHeader, Handler] = new PartialFunction[RequestHeader, Handler] {
+
+    def isDefinedAt(request: RequestHeader): Boolean = lookup(request, handlers).isDefined
+
+    def apply(request: RequestHeader): Handler = lookup(request, handlers).getOrElse(throw new MatchError(request))
+
+    override def applyOrElse[A1 <: RequestHeader, B1 >: Handler](request: A1, default: A1 => B1): B1 = {
+      lookup(request, handlers).getOrElse(default(request))
+    }
+
+  }
+
+  private def lookup(request: RequestHeader, handlers: PartialFunction[(Int, RouteParams), Handler]): Option[Handler] = {
+    val path = request.path
+    val segments = path.split("/", -1)
+    val candidates = mutable.ArrayBuffer.empty[(Int, () => Option[Handler])]
+
+    def routed(index: Int, params: => Option[Map[String, Either[Throwable, String]]]) = {
+      candidates += index -> (() => params.map(p => handlers((index, RouteParams(p, request.queryString)))))
+    }
+
+    def collect(node: Node, depth: Int) {
+      node.tails.foreach(tail => routed(tail.index, tail.pattern(path)))
+      if (depth == segments.length) {
+        node.exact.foreach(exact => routed(exact.index, Some(exact.params(segments))))
+      } else {
+        val segment = segments(depth)
+        node.statics.get(segment).foreach(collect(_, depth + 1))
+        node.dynamics.foreach {
+          case (matcher, child) => if (matcher.matches(segment)) collect(child, depth + 1)
+        }
+      }
+    }
+
+    methods.get(request.method).foreach(collect(_, 0))
+    includes.foreach {
+      case (index, include) => candidates += index -> (() => include.unapply(request))
+    }
+
+    @tailrec
+    def first(remaining: List[(Int, () => Option[Handler])]): Option[Handler] = remaining match {
+      case Nil => None
+      case (_, candidate) :: rest => candidate() match {
+        case None => first(rest)
+        case found => found
+      }
+    }
+
+    if (candidates.isEmpty) None else first(candidates.sortBy(_._1).toList)
+  }
+
+}
+
+object RoutingTrie {
+
+  /**
+   * Compiles a routing table. Each entry is either a `Route` or an `Include` matcher, in declaration order.
+   */
+  def apply(entries: Seq[AnyRef]): RoutingTrie = {
+    val methods = mutable.HashMap.empty[String, Node]
+    val includes = mutable.ArrayBuffer.empty[(Int, Include.Matcher)]
+    entries.zipWithIndex.foreach {
+      case (route: Route.Matcher, index) => insert(methods.getOrElseUpdate(route.method, new Node), index, route.pathPattern)
+      case (include: Include.Matcher, index) => includes += index -> include
+      case (other, _) => throw new IllegalArgumentException("Unsupported routing entry: " + other)
+    }
+    new RoutingTrie(methods.toMap, includes.toList)
+  }
+
+  private[core] final class Node {
+    val statics = mutable.HashMap.empty[String, Node]
+    var dynamics = Vector.empty[(SegmentMatcher, Node)]
+    var exact = Vector.empty[Exact]
+    var tails = Vector.empty[Tail]
+  }
+
+  /**
+   * Matches a single path segment. Without regex, any non empty segment matches (the default `[^/]+` constraint).
+   */
+  private[core] case class SegmentMatcher(shape: String, regex: Option[Pattern]) {
+    def matches(segment: String): Boolean = regex.map(_.matcher(segment).matches).getOrElse(!segment.isEmpty)
+  }
+
+  /**
+   * Values captured from one dynamic segment: each group is a parameter name, its regex group and whether it must be decoded.
+   */
+  private[core] case class Capture(segment: Int, regex: Option[Pattern], groups: Seq[(String, Int, Boolean)]) {
+    def values(segments: Array[String]): Seq[(String, Either[Throwable, String])] = regex match {
+      case None => groups.map { case (name, _, decode) => name -> decodeValue(decode, segments(segment)) }
+      case Some(r) => {
+        val matcher = r.matcher(segments(segment))
+        matcher.matches()
+        groups.map { case (name, group, decode) => name -> decodeValue(decode, matcher.group(group)) }
+      }
+    }
+  }
+
+  /**
+   * A route fully resolved by the trie.
+   */
+  private[core] case class Exact(index: Int, captures: Seq[Capture]) {
+    def params(segments: Array[String]): Map[String, Either[Throwable, String]] = captures.flatMap(_.values(segments)).toMap
+  }
+
+  /**
+   * A route whose remaining path must be checked against its full pattern.
+   */
+  private[core] case class Tail(index: Int, pattern: PathPattern)
+
+  private[core] def decodeValue(decode: Boolean, value: String): Either[Throwable, String] = {
+    Exception.allCatch[String].either {
+      if (decode) {
+        // If param is not correctly encoded, get path will return null, so we prepend a / to it
+        new URI("/" + value).getPath.drop(1)
+      } else
+        value
+    }
+  }
+
+  private def insert(root: Node, index: Int, pattern: PathPattern) {
+    val (segments, complete) = split(pattern.parts)
+    val (node, captures) = segments.zipWithIndex.foldLeft((root, Vector.empty[Capture])) {
+      case ((node, captures), (pieces, i)) =>
+        pieces.collect { case StaticPart(value) => value } match {
+          case statics if statics.size == pieces.size => (node.statics.getOrElseUpdate(statics.mkString, new Node), captures)
+          case _ => {
+            val (matcher, capture) = segmentMatcher(i, pieces)
+            val child = node.dynamics.collectFirst { case (m, c) if m.shape == matcher.shape => c }.getOrElse {
+              val c = new Node
+              node.dynamics :+= matcher -> c
+              c
+            }
+            (child, captures :+ capture)
+          }
+        }
+    }
+    if (complete) node.exact :+= Exact(index, captures) else node.tails :+= Tail(index, pattern)
+  }
+
+  /**
+   * Splits path parts into segments. The second element is false if a dynamic part may span several segments, in
+   * which case only the segments preceding it are returned.
+   */
+  private def split(parts: Seq[PathPart]): (Seq[Seq[PathPart]], Boolean) = {
+    val segments = mutable.ArrayBuffer.empty[Seq[PathPart]]
+    var current = Vector.empty[PathPart]
+    val complete = parts.forall {
+      case StaticPart(value) => {
+        val pieces = value.split("/", -1)
+        current ++= Some(pieces.head).filterNot(_.isEmpty).map(StaticPart(_))
+        pieces.tail.foreach { piece =>
+          segments += current
+          current = Vector.empty ++ Some(piece).filterNot(_.isEmpty).map(StaticPart(_))
+        }
+        true
+      }
+      case part @ DynamicPart(_, constraint, _) if isSegmentLocal(constraint) => {
+        current :+= part
+        true
+      }
+      case _ => false
+    }
+    if (complete) segments += current
+    (segments.toList, complete)
+  }
+
+  private def segmentMatcher(segment: Int, pieces: Seq[PathPart]): (SegmentMatcher, Capture) = pieces match {
+    case Seq(DynamicPart(name, "[^/]+", decode)) => SegmentMatcher("([^/]+)", None) -> Capture(segment, None, Seq((name, 0, decode)))
+    case _ => {
+      val (shape, groups, _) = pieces.foldLeft(("", Vector.empty[(String, Int, Boolean)], 0)) {
+        case ((s, g, count), StaticPart(value)) => (s + Pattern.quote(value), g, count)
+        case ((s, g, count), DynamicPart(name, constraint, decode)) =>
+          (s + "(" + constraint + ")", g :+ ((name, count + 1, decode)), count + 1 + Pattern.compile(constraint).matcher("").groupCount)
+      }
+      val regex = Pattern.compile("^" + shape + "$")
+      SegmentMatcher(shape, Some(regex)) -> Capture(segment, Some(regex), groups)
+    }
+  }
+
+  /**
+   * Whether a constraint can only match characters of a single segment, ie never a `/`. This is conservative: any
+   * construct that is not understood is assumed to possibly match a `/`.
+   */
+  private[core] def isSegmentLocal(constraint: String): Boolean = {
+
+    // Only escapes of a single character that is never a `/` are safe: octal, hexadecimal and unicode escapes, such as
+    // \057, may denote a `/`
+    def safeEscape(c: Char) = if (c.isLetter) "dwsntrfae".indexOf(c) >= 0 else !c.isDigit && c != '/'
+
+    def safeClass(content: String, negated: Boolean): Boolean = {
+      if (content.contains('[')) false
+      else if (negated) content.contains('/')
+      else {
+        @tailrec
+        def check(j: Int): Boolean = {
+          if (j >= content.length) true
+          else content.charAt(j) match {
+            case '\\' => j + 1 < content.length && safeEscape(content.charAt(j + 1)) && check(j + 2)
+            case '/' => false
+            case lo if j + 2 < content.length && content.charAt(j + 1) == '-' => {
+              val hi = content.charAt(j + 2)
+              hi != '\\' && (lo > '/' || hi < '/') && check(j + 3)
+            }
+            case _ => check(j + 1)
+          }
+        }
+        check(0)
+      }
+    }
+
+    @tailrec
+    def check(i: Int): Boolean = {
+      if (i >= constraint.length) true
+      else constraint.charAt(i) match {
+        case '.' | '/' => false
+        case '\\' => i + 1 < constraint.length && safeEscape(constraint.charAt(i + 1)) && check(i + 2)
+        case '[' => {
+          val negated = constraint.startsWith("^", i + 1)
+          val start = if (negated) i + 2 else i + 1
+          val end = constraint.indexOf(']', start)
+          end > start && constraint.charAt(end - 1) != '\\' && safeClass(constraint.substring(start, end), negated) && check(end + 1)
+        }
+        case _ => check(i + 1)
+      }
+    }
+
+    check(0)
+  }
+
+}
@@ -36,10 +36,44 @@ class NettyServer(appProvider: ApplicationProvider, port: Int, sslPort: Option[I
 
   def applicationProvider = appProvider
 
-  private def newBootstrap = new ServerBootstrap(
-    new org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory(
-      Executors.newCachedThreadPool(NamedThreadFactory("netty-boss")),
-      Executors.newCachedThreadPool(NamedThreadFactory("netty-worker"))))
+  private val bossThreads = NettyServer.intProperty("http.netty.bossThreads").getOrElse(1)
+
+  private val workerThreads = NettyServer.intProperty("http.netty.workerThreads").getOrElse(Runtime.getRuntime.availableProcessors * 2)
+
+  // The thread pools of every bootstrap, by name
+  private val threadPools = scala.collection.mutable.ArrayBuffer.empty[(String, Int, ThreadPoolExecutor)]
+
+  // Netty starts exactly one long running task per boss and worker, so the pool itself does not need to be bounded
+  private def newThreadPool(name: String, threads: Int) = {
+    val pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue[Runnable], NamedThreadFactory("netty-" + name))
+    threadPools += ((name, threads, pool))
+    pool
+  }
+
+  private def newBootstrap(scheme: String) = {
+    val bootstrap = new ServerBootstrap(
+      new org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory(
+        newThreadPool(scheme + "-boss", bossThreads), bossThreads,
+        newThreadPool(scheme + "-worker", workerThreads), workerThreads))
+    NettyServer.bootstrapOptions.foreach {
+      case (key, value) => bootstrap.setOption(key, value)
+    }
+    bootstrap
+  }
+
+  /**
+   * The configured, current, active and largest number of threads of the Netty boss and worker thread pools, with
+   * their number of completed tasks.
+   */
+  def threadPoolStats: Seq[NettyThreadPoolStats] = threadPools.map {
+    case (name, threads, pool) => NettyThreadPoolStats(name, threads, pool.getPoolSize, pool.getActiveCount, pool.getLargestPoolSize, pool.getCompletedTaskCount)
+  }
+
+  /**
+   * How the results without `Content-Length` have been sent: buffered in memory, or chunked when larger than the
+   * `http.netty.chunkedThreshold` System property.
+   */
+  def unsizedResultStats: NettyUnsizedResultStats = NettyUnsizedResultStats(defaultUpStreamHandler.bufferedResults.get, defaultUpStreamHandler.chunkedResults.get)
 
   class PlayPipelineFactory(secure: Boolean = false) extends ChannelPipelineFactory {
 
@@ -55,6 +89,10 @@ class NettyServer(appProvider: ApplicationProvider, port: Int, sslPort: Option[I
       newPipeline.addLast("decoder", new HttpRequestDecoder(4096, 8192, 8192))
       newPipeline.addLast("encoder", new HttpResponseEncoder())
       newPipeline.addLast("decompressor", new HttpContentDecompressor())
+      if (secure) {
+        // File regions cannot be encrypted, files are written in chunks instead
+        newPipeline.addLast("chunked-writer", new org.jboss.netty.handler.stream.ChunkedWriteHandler())
+      }
       newPipeline.addLast("http-pipelining", new HttpPipeliningHandler())
       newPipeline.addLast("handler", defaultUpStreamHandler)
       newPipeline
@@ -120,11 +158,11 @@ class NettyServer(appProvider: ApplicationProvider, port: Int, sslPort: Option[I
   val allChannels = new DefaultChannelGroup
 
   // Our upStream handler is stateless. Let's use this instance for every new connection
-  val defaultUpStreamHandler = new PlayDefaultUpstreamHandler(this, allChannels)
+  val defaultUpStreamHandler = new PlayDefaultUpstreamHandler(this, allChannels, NettyServer.intProperty("http.netty.chunkedThreshold").getOrElse(64 * 1024))
 
   // The HTTP server channel
   val HTTP = {
-    val bootstrap = newBootstrap
+    val bootstrap = newBootstrap("http")
     bootstrap.setPipelineFactory(new PlayPipelineFactory)
     val channel = bootstrap.bind(new InetSocketAddress(address, port))
     allChannels.add(channel)
@@ -133,7 +171,7 @@ class NettyServer(appProvider: ApplicationProvider, port: Int, sslPort: Option[I
 
   // Maybe the HTTPS server channel
   val HTTPS = sslPort.map { port =>
-    val bootstrap = newBootstrap
+    val bootstrap = newBootstrap("https")
     bootstrap.setPipelineFactory(new PlayPipelineFactory(secure = true))
     val channel = bootstrap.bind(new InetSocketAddress(address, port))
     allChannels.add(channel)
@@ -191,6 +229,29 @@ object noCATrustManager extends X509TrustManager {
   def getAcceptedIssuers() = nullArray
 }
 
+/**
+ * Threads of a Netty thread pool.
+ *
+ * Boss and worker threads run their loop for the whole life of the server, so that these numbers show how many
+ * threads were started, rather than how busy they are.
+ *
+ * @param name the pool name, such as `http-worker`
+ * @param maxThreads the configured number of threads
+ * @param threads the number of threads currently started
+ * @param activeThreads the number of threads currently running a boss or worker loop
+ * @param largestThreads the largest number of threads ever started at the same time
+ * @param completedTasks the number of boss or worker loops that have terminated
+ */
+case class NettyThreadPoolStats(name: String, maxThreads: Int, threads: Int, activeThreads: Int, largestThreads: Int, completedTasks: Long)
+
+/**
+ * Counts of the simple results sent without `Content-Length`.
+ *
+ * @param buffered the number of results buffered in memory and sent with a `Content-Length`
+ * @param chunked the number of results sent with `Transfer-Encoding: chunked`, since they were too large to buffer
+ */
+case class NettyUnsizedResultStats(buffered: Long, chunked: Long)
+
 /**
  * bootstraps Play application with a NettyServer backened
  */
@@ -198,6 +259,19 @@ object NettyServer {
 
   import java.io._
 
+  private[server] def intProperty(name: String): Option[Int] = Option(System.getProperty(name)).map(Integer.parseInt(_))
+
+  /**
+   * Netty bootstrap options, such as `backlog` or `child.tcpNoDelay`, specified by `http.netty.option.*` System properties.
+   */
+  private[server] def bootstrapOptions: Map[String, String] = {
+    import scala.collection.JavaConverters._
+    val prefix = "http.netty.option."
+    System.getProperties.stringPropertyNames.asScala.collect {
+      case key if key.startsWith(prefix) => key.drop(prefix.length) -> System.getProperty(key)
+    }.toMap
+  }
+
   /**
    * creates a NettyServer based on the application represented by applicationPath
    * @param applicationPath path to application
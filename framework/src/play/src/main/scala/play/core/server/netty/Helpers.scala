@@ -8,8 +8,6 @@ import play.api.libs.iteratee._
 import play.api.libs.iteratee.Input._
 
 import scala.collection.JavaConverters._
-import collection.immutable.TreeMap
-import play.core.utils.CaseInsensitiveOrdered
 
 private[netty] trait Helpers {
 
@@ -27,31 +25,39 @@ private[netty] trait Helpers {
     Enumeratee.breakE[A](_ => !channel.isConnected()).transform(Cont(step(None)))
   }
 
-  def getHeaders(nettyRequest: HttpRequest): Headers = {
-
-    //todo: wrap the underlying map in a structure more efficient than TreeMap
-    val pairs = nettyRequest.getHeaderNames.asScala.map { key =>
-      key -> nettyRequest.getHeaders(key).asScala
+  def getHeaders(nettyRequest: HttpRequest): Headers = new NettyHeaders(nettyRequest)
+
+  /**
+   * Copies the headers of a result to a Netty response. The cookies are written without going through the merged
+   * `Set-Cookie` header, each one in its own header, since several cookies merged in a single header are not properly
+   * supported by some browsers.
+   */
+  def setHeaders(nettyResponse: HttpResponse, header: ResponseHeader) {
+    header.plainHeaders.foreach {
+      case (HttpHeaders.Names.SET_COOKIE, _) =>
+      case (HttpHeaders.Names.CONTENT_LENGTH, "-1") =>
+      case (name, value) => nettyResponse.setHeader(name, value)
+    }
+    val cookies = header.setCookies
+    if (!cookies.isEmpty) {
+      nettyResponse.setHeader(HttpHeaders.Names.SET_COOKIE, cookies.map(cookie => Cookies.encode(Seq(cookie))).asJava)
     }
-
-    new Headers { val data = pairs.toSeq }
-
   }
 
-  def getCookies(nettyRequest: HttpRequest): Cookies = {
+}
 
-    val cookies: Map[String, play.api.mvc.Cookie] = getHeaders(nettyRequest).get(play.api.http.HeaderNames.COOKIE).map { cookiesHeader =>
-      new CookieDecoder().decode(cookiesHeader).asScala.map { c =>
-        c.getName -> play.api.mvc.Cookie(
-          c.getName, c.getValue, if (c.getMaxAge == Integer.MIN_VALUE) None else Some(c.getMaxAge),
-          Option(c.getPath).getOrElse("/"), Option(c.getDomain), c.isSecure, c.isHttpOnly)
-      }.toMap
-    }.getOrElse(Map.empty)
+/**
+ * The headers of a Netty request. Headers are looked up case insensitively by Netty, and only copied into a map
+ * when the whole map is needed.
+ */
+private[netty] class NettyHeaders(nettyRequest: HttpRequest) extends Headers {
 
-    new Cookies {
-      def get(name: String) = cookies.get(name)
-      override def toString = cookies.toString
-    }
+  override def get(key: String): Option[String] = Option(nettyRequest.getHeader(key))
 
+  override def getAll(key: String): Seq[String] = nettyRequest.getHeaders(key).asScala
+
+  protected lazy val data: Seq[(String, Seq[String])] = nettyRequest.getHeaderNames.asScala.toSeq.map { key =>
+    key -> getAll(key)
   }
+
 }
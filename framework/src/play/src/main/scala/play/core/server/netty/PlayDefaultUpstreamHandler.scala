@@ -26,12 +26,16 @@ import com.typesafe.netty.http.pipelining.{OrderedDownstreamMessageEvent, Ordere
 import scala.concurrent.Future
 
 
-private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: DefaultChannelGroup) extends SimpleChannelUpstreamHandler with Helpers with WebSocketHandler with RequestBodyHandler {
+private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: DefaultChannelGroup, chunkedThreshold: Int = 64 * 1024) extends SimpleChannelUpstreamHandler with Helpers with WebSocketHandler with RequestBodyHandler {
 
   implicit val internalExecutionContext =  play.core.Execution.internalContext
 
   private val requestIDs = new java.util.concurrent.atomic.AtomicLong(0)
 
+  // Simple results without Content-Length, sent in a single buffer or chunked
+  private[server] val bufferedResults = new java.util.concurrent.atomic.AtomicLong(0)
+  private[server] val chunkedResults = new java.util.concurrent.atomic.AtomicLong(0)
+
   override def exceptionCaught(ctx: ChannelHandlerContext, e: ExceptionEvent) {
     Logger.trace("Exception caught in Netty", e.getCause)
     e.getChannel.close()
@@ -65,7 +69,6 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
         var nettyVersion = nettyHttpRequest.getProtocolVersion
         val nettyUri = new QueryStringDecoder(nettyHttpRequest.getUri)
         val rHeaders = getHeaders(nettyHttpRequest)
-        val rCookies = getCookies(nettyHttpRequest)
 
         def rRemoteAddress = e.getRemoteAddress match {
           case ra: java.net.InetSocketAddress => {
@@ -133,6 +136,11 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
         implicit val msgCtx = ctx
         implicit val oue = e.asInstanceOf[OrderedUpstreamMessageEvent]
 
+        // Serves the byte ranges requested from a file result
+        object Ranged {
+          def unapply(result: Result): Option[PlainResult] = ByteRanges(requestHeader, result)
+        }
+
           def handle(result: Result, startSequence: Int) {
             result match {
 
@@ -146,23 +154,15 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
                 }
               }
 
-              case r @ SimpleResult(ResponseHeader(status, headers), body) if (!websocketableRequest.check) => {
-                val nettyResponse = new DefaultHttpResponse(nettyHttpRequest.getProtocolVersion, HttpResponseStatus.valueOf(status))
+              case Ranged(ranged) if (!websocketableRequest.check) => handle(ranged, startSequence)
+
+              case r @ SimpleResult(header, body) if (!websocketableRequest.check) => {
+                val nettyResponse = new DefaultHttpResponse(nettyHttpRequest.getProtocolVersion, HttpResponseStatus.valueOf(header.status))
 
                 Play.logger.trace("Sending simple result: " + r)
 
                 // Set response headers
-                headers.filterNot(_ == (CONTENT_LENGTH, "-1")).foreach {
-
-                  // Fix a bug for Set-Cookie header. 
-                  // Multiple cookies could be merged in a single header
-                  // but it's not properly supported by some browsers
-                  case (name @ play.api.http.HeaderNames.SET_COOKIE, value) => {
-                    nettyResponse.setHeader(name, Cookies.decode(value).map { c => Cookies.encode(Seq(c)) }.asJava)
-                  }
-
-                  case (name, value) => nettyResponse.setHeader(name, value)
-                }
+                setHeaders(nettyResponse, header)
 
                 // Response header Connection: Keep-Alive is needed for HTTP 1.0
                 if (keepAlive && nettyVersion == HttpVersion.HTTP_1_0) {
@@ -170,49 +170,99 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
                 }
 
                 // Stream the result
-                headers.get(CONTENT_LENGTH).map { contentLength =>
-                  val bodyIteratee = {
-                    def step(subsequence: Int)(in: Input[r.BODY_CONTENT]): Iteratee[r.BODY_CONTENT, Unit] = in match {
-                      case Input.El(x) =>
-                        val b = ChannelBuffers.wrappedBuffer(r.writeable.transform(x))
-                        nextWhenComplete(sendDownstream(subsequence, false, b), step(subsequence + 1))
-                      case Input.Empty =>
-                        Cont(step(subsequence))
-                      case Input.EOF =>
-                        sendDownstream(subsequence, true, ChannelBuffers.EMPTY_BUFFER)
-                        Done(())
+                header.plainHeaders.get(CONTENT_LENGTH).map { contentLength =>
+                  body match {
+
+                    // Write files straight to the channel
+                    case file: FileEnumerator => {
+                      val content = Exception.allCatch[Object].either(fileContent(ctx, file))
+                      content.fold(
+                        ex => Future.failed[Unit](ex),
+                        content => {
+                          sendDownstream(startSequence, false, nettyResponse)
+                          NettyPromise(sendDownstream(startSequence + 1, true, content))
+                        }).extend1 {
+                        case Redeemed(_) =>
+                          file.onClose()
+                          cleanup()
+                          ctx.setAttachment(null)
+                          if (!keepAlive) Channels.close(e.getChannel)
+                        case Thrown(ex) =>
+                          content.right.foreach(releaseFileContent)
+                          file.onClose()
+                          Play.logger.debug(ex.toString)
+                          Channels.close(e.getChannel)
+                      }
                     }
-                    nextWhenComplete(sendDownstream(startSequence, false, nettyResponse), step(startSequence + 1))
-                  }
 
-                  (body |>>> bodyIteratee).extend1 {
-                    case Redeemed(_) =>
-                      cleanup()
-                      ctx.setAttachment(null)
-                      if (!keepAlive || contentLength == "-1") Channels.close(e.getChannel)
-                    case Thrown(ex) =>
-                      Play.logger.debug(ex.toString)
-                      Channels.close(e.getChannel)
+                    case _ => {
+                      val bodyIteratee = {
+                        def step(subsequence: Int)(in: Input[r.BODY_CONTENT]): Iteratee[r.BODY_CONTENT, Unit] = in match {
+                          case Input.El(x) =>
+                            val b = ChannelBuffers.wrappedBuffer(r.writeable.transform(x))
+                            nextWhenComplete(sendDownstream(subsequence, false, b), step(subsequence + 1))
+                          case Input.Empty =>
+                            Cont(step(subsequence))
+                          case Input.EOF =>
+                            sendDownstream(subsequence, true, ChannelBuffers.EMPTY_BUFFER)
+                            Done(())
+                        }
+                        nextWhenComplete(sendDownstream(startSequence, false, nettyResponse), step(startSequence + 1))
+                      }
+
+                      (body |>>> bodyIteratee).extend1 {
+                        case Redeemed(_) =>
+                          cleanup()
+                          ctx.setAttachment(null)
+                          if (!keepAlive || contentLength == "-1") Channels.close(e.getChannel)
+                        case Thrown(ex) =>
+                          Play.logger.debug(ex.toString)
+                          Channels.close(e.getChannel)
+                      }
+                    }
                   }
                 }.getOrElse {
 
-                  // No Content-Length header specified, buffer in-memory
-                  val stringIteratee =
-                    Iteratee
-                      .fold(List[Array[Byte]]())((c, e:r.BODY_CONTENT) => r.writeable.transform(e)  :: c)
-                      .map(bs => ChannelBuffers.wrappedBuffer(bs.reverse:_*))
+                  // No Content-Length header specified, buffer in-memory, unless the body is larger than the
+                  // threshold, in which case it is sent chunked to HTTP 1.1 clients
+                  val chunkable = nettyVersion == HttpVersion.HTTP_1_1
 
-                  val p = (body |>>> stringIteratee.map { 
-                    case bs =>
-                      val buffer = bs
+                  def buffering(buffered: List[Array[Byte]], size: Long)(in: Input[r.BODY_CONTENT]): Iteratee[r.BODY_CONTENT, Unit] = in match {
+                    case Input.El(x) =>
+                      val bytes = r.writeable.transform(x)
+                      if (chunkable && size + bytes.length > chunkedThreshold) {
+                        chunkedResults.incrementAndGet()
+                        nettyResponse.setHeader(TRANSFER_ENCODING, HttpHeaders.Values.CHUNKED)
+                        nettyResponse.setChunked(true)
+                        sendDownstream(startSequence, false, nettyResponse)
+                        val chunk = new DefaultHttpChunk(ChannelBuffers.wrappedBuffer((bytes :: buffered).reverse: _*))
+                        nextWhenComplete(sendDownstream(startSequence + 1, false, chunk), streaming(startSequence + 2))
+                      } else {
+                        Cont(buffering(bytes :: buffered, size + bytes.length))
+                      }
+                    case Input.Empty =>
+                      Cont(buffering(buffered, size))
+                    case Input.EOF =>
+                      bufferedResults.incrementAndGet()
+                      val buffer = ChannelBuffers.wrappedBuffer(buffered.reverse: _*)
                       nettyResponse.setHeader(CONTENT_LENGTH, buffer.readableBytes)
                       nettyResponse.setContent(buffer)
-                      val f = sendDownstream(startSequence, true, nettyResponse)
-                      if (!keepAlive) f.addListener(ChannelFutureListener.CLOSE)
-                      val p = NettyPromise(f)
-                      p
-                  })
-                  p.flatMap(identity).extend1 {
+                      Iteratee.flatten(NettyPromise(sendDownstream(startSequence, true, nettyResponse)).map(_ => Done(())))
+                  }
+
+                  def streaming(subsequence: Int)(in: Input[r.BODY_CONTENT]): Iteratee[r.BODY_CONTENT, Unit] = in match {
+                    case Input.El(x) =>
+                      val bytes = r.writeable.transform(x)
+                      // An empty chunk would end the response
+                      if (bytes.isEmpty) Cont(streaming(subsequence))
+                      else nextWhenComplete(sendDownstream(subsequence, false, new DefaultHttpChunk(ChannelBuffers.wrappedBuffer(bytes))), streaming(subsequence + 1))
+                    case Input.Empty =>
+                      Cont(streaming(subsequence))
+                    case Input.EOF =>
+                      Iteratee.flatten(NettyPromise(sendDownstream(subsequence, true, HttpChunk.LAST_CHUNK)).map(_ => Done(())))
+                  }
+
+                  (body |>>> Cont(buffering(Nil, 0))).extend1 {
                     case Redeemed(_) =>
                       cleanup()
                       ctx.setAttachment(null)
@@ -224,29 +274,14 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
                 }
               }
 
-              case r @ ChunkedResult(ResponseHeader(status, headers), chunks) => {
+              case r @ ChunkedResult(header, chunks) => {
 
                 Play.logger.trace("Sending chunked result: " + r)
 
-                val nettyResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.valueOf(status))
+                val nettyResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.valueOf(header.status))
 
                 // Copy headers to netty response
-                headers.foreach {
-
-                  // Fix a bug for Set-Cookie header. 
-                  // Multiple cookies could be merged in a single header
-                  // but it's not properly supported by some browsers
-                  case (name @ play.api.http.HeaderNames.SET_COOKIE, value) => {
-
-                    import scala.collection.JavaConverters._
-                    import play.api.mvc._
-
-                    nettyResponse.setHeader(name, Cookies.decode(value).map { c => Cookies.encode(Seq(c)) }.asJava)
-
-                  }
-
-                  case (name, value) => nettyResponse.setHeader(name, value)
-                }
+                setHeaders(nettyResponse, header)
 
                 nettyResponse.setHeader(TRANSFER_ENCODING, HttpHeaders.Values.CHUNKED)
                 nettyResponse.setChunked(true)
@@ -281,20 +316,9 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
           }
 
         def cleanFlashCookie(r:PlainResult):Result = {
-          val header = r.header
-
-          val flashCookie = {
-            header.headers.get(SET_COOKIE)
-            .map(Cookies.decode(_))
-            .flatMap(_.find(_.name == Flash.COOKIE_NAME)).orElse {
-              Option(requestHeader.flash).filterNot(_.isEmpty).map { _ =>
-                Flash.discard.toCookie
-              }
-            }
-          }
-
-          flashCookie.map { newCookie =>
-            r.withHeaders(SET_COOKIE -> Cookies.merge(header.headers.get(SET_COOKIE).getOrElse(""), Seq(newCookie)))
+          if (r.header.setCookies.exists(_.name == Flash.COOKIE_NAME)) r
+          else Option(requestHeader.flash).filterNot(_.isEmpty).map { _ =>
+            r.withCookies(Flash.discard.toCookie)
           }.getOrElse(r)
         }
 
@@ -360,12 +384,7 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
           } else {
 
             val bodyEnumerator = {
-              val body = {
-                val cBuffer = nettyHttpRequest.getContent()
-                val bytes = new Array[Byte](cBuffer.readableBytes())
-                cBuffer.readBytes(bytes)
-                bytes
-              }
+              val body = readableBytes(nettyHttpRequest.getContent())
               Enumerator(body).andThen(Enumerator.enumInput(EOF))
             }
 
@@ -406,6 +425,32 @@ private[server] class PlayDefaultUpstreamHandler(server: Server, allChannels: De
     }
   }
 
+  /**
+   * The content of a file response: a zero-copy file region, or file chunks when the channel is encrypted.
+   */
+  def fileContent(ctx: ChannelHandlerContext, file: FileEnumerator): Object = {
+    val raf = new java.io.RandomAccessFile(file.file, "r")
+    if (ctx.getPipeline.get(classOf[SslHandler]) == null) {
+      new DefaultFileRegion(raf.getChannel, file.position, file.length, true)
+    } else {
+      new org.jboss.netty.handler.stream.ChunkedFile(raf, file.position, file.length, FileEnumerator.ChunkSize)
+    }
+  }
+
+  /**
+   * Closes the file of a file response that could not be written, for example because the channel is closed.
+   */
+  def releaseFileContent(content: Object) {
+    try {
+      content match {
+        case region: FileRegion => region.releaseExternalResources()
+        case chunks: org.jboss.netty.handler.stream.ChunkedFile => chunks.close()
+      }
+    } catch {
+      case NonFatal(e) => Play.logger.debug("Cannot close the file of a response", e)
+    }
+  }
+
   def sendDownstream(subSequence: Int, last: Boolean, message: Object)
                     (implicit ctx: ChannelHandlerContext, oue: OrderedUpstreamMessageEvent) = {
     val ode = new OrderedDownstreamMessageEvent(oue, subSequence, last, message)
@@ -1,5 +1,6 @@
 package play.core.server.netty
 
+import org.jboss.netty.buffer.ChannelBuffer
 import org.jboss.netty.channel._
 import org.jboss.netty.handler.codec.http._
 
@@ -13,6 +14,22 @@ import scala.util.{ Failure, Success }
 
 private[server] trait RequestBodyHandler {
 
+  /**
+   * Reads the readable bytes of a buffer. The bytes are not copied when the buffer wraps exactly an array, as is
+   * the case for the content of requests and chunks decoded by Netty.
+   */
+  def readableBytes(buffer: ChannelBuffer): Array[Byte] = {
+    if (buffer.hasArray && buffer.arrayOffset == 0 && buffer.readerIndex == 0 && buffer.readableBytes == buffer.array.length) {
+      val bytes = buffer.array
+      buffer.skipBytes(bytes.length)
+      bytes
+    } else {
+      val bytes = new Array[Byte](buffer.readableBytes())
+      buffer.readBytes(bytes)
+      bytes
+    }
+  }
+
   /**
    * Creates a new upstream handler for the purposes of receiving chunked requests. Requests are buffered as an
    * optimization.
@@ -26,24 +43,21 @@ private[server] trait RequestBodyHandler {
     finish: => Unit): Future[Iteratee[Array[Byte], A]] = {
 
     implicit val internalContext = play.core.Execution.internalContext
-    import scala.concurrent.stm._
+    import java.util.concurrent.atomic.{ AtomicInteger, AtomicReference }
     var p = Promise[Iteratee[Array[Byte], A]]()
     val MaxMessages = 10
     val MinMessages = 10
-    val counter = Ref(0)
+    val counter = new AtomicInteger(0)
 
-    var iteratee: Ref[Iteratee[Array[Byte], A]] = Ref(firstIteratee)
+    // Chunks of a channel are received one at a time, an atomic swap is enough to chain the iteratees
+    val iteratee = new AtomicReference[Iteratee[Array[Byte], A]](firstIteratee)
 
     def pushChunk(ctx: ChannelHandlerContext, chunk: Input[Array[Byte]]) {
-      if (counter.single.transformAndGet { _ + 1 } > MaxMessages && ctx.getChannel.isOpen() && !p.isCompleted)
+      if (counter.incrementAndGet() > MaxMessages && ctx.getChannel.isOpen() && !p.isCompleted)
         ctx.getChannel.setReadable(false)
 
       val itPromise = Promise[Iteratee[Array[Byte], A]]()
-      val current = atomic { implicit txn =>
-        if (!p.isCompleted)
-          Some(iteratee.single.swap(Iteratee.flatten(itPromise.future)))
-        else None
-      }
+      val current = if (!p.isCompleted) Some(iteratee.getAndSet(Iteratee.flatten(itPromise.future))) else None
 
       current.foreach { i =>
         i.feed(chunk).flatMap(_.unflatten).onComplete {
@@ -53,7 +67,7 @@ private[server] trait RequestBodyHandler {
             finish(finished.it)
           case Failure(e) =>
             if (!p.tryFailure(e)) {
-              iteratee = null; p = null;
+              iteratee.set(null); p = null;
               if (ctx.getChannel.isOpen()) ctx.getChannel.setReadable(true)
             }
             itPromise.failure(e)
@@ -61,14 +75,14 @@ private[server] trait RequestBodyHandler {
       }
 
       def continue(it: Iteratee[Array[Byte], A]) {
-        if (counter.single.transformAndGet { _ - 1 } <= MinMessages && ctx.getChannel.isOpen())
+        if (counter.decrementAndGet() <= MinMessages && ctx.getChannel.isOpen())
           ctx.getChannel.setReadable(true)
         itPromise.success(it)
       }
 
       def finish(it: Iteratee[Array[Byte], A]) {
         if (!p.trySuccess(it)) {
-          iteratee = null; p = null;
+          iteratee.set(null); p = null;
           if (ctx.getChannel.isOpen()) ctx.getChannel.setReadable(true)
         }
         itPromise.success(it)
@@ -80,10 +94,7 @@ private[server] trait RequestBodyHandler {
         e.getMessage match {
 
           case chunk: HttpChunk if !chunk.isLast() =>
-            val cBuffer = chunk.getContent()
-            val bytes = new Array[Byte](cBuffer.readableBytes())
-            cBuffer.readBytes(bytes)
-            pushChunk(ctx, El(bytes))
+            pushChunk(ctx, El(readableBytes(chunk.getContent())))
 
           case chunk: HttpChunk if chunk.isLast() => {
             pushChunk(ctx, EOF)
@@ -1,7 +1,163 @@
 package play.api.cache
 
 import org.specs2.mutable._
+import org.specs2.specification.Scope
+import org.specs2.execute.{ Result => SpecsResult, AsResult }
+
+import play.api.FakeApplication
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
 
 object CacheSpec extends Specification {
 
+  sequential
+
+  "EhCachePlugin" should {
+
+    "set and get several values at once" in new WithEhCache {
+      cache.setAll(Map("a" -> 1, "b" -> "two"), 0)
+      cache.getAll(Seq("a", "b", "c")) must_== Map("a" -> 1, "b" -> "two")
+    }
+
+    "remove several values at once" in new WithEhCache {
+      cache.setAll(Map("a" -> 1, "b" -> 2, "c" -> 3), 0)
+      cache.removeAll(Seq("a", "c"))
+      cache.getAll(Seq("a", "b", "c")) must_== Map("b" -> 2)
+    }
+
+    "provide asynchronous operations" in new WithEhCache {
+      Await.result(cache.setAsync("a", 1, 0), 1.second)
+      Await.result(cache.getAsync("a"), 1.second) must beSome(1)
+      Await.result(cache.getAllAsync(Seq("a", "b")), 1.second) must_== Map("a" -> 1)
+      Await.result(cache.removeAsync("a"), 1.second)
+      cache.get("a") must beNone
+    }
+
+    "load a missing value only once for concurrent callers" in new WithEhCache {
+      val loaded = scala.concurrent.Promise[Any]()
+      var loads = 0
+      def load = {
+        loads += 1
+        loaded.future
+      }
+      val first = cache.getOrElseAsync("a", 0)(load)
+      val second = cache.getOrElseAsync("a", 0)(load)
+      loaded.success("value")
+      Await.result(first, 1.second) must_== "value"
+      Await.result(second, 1.second) must_== "value"
+      loads must_== 1
+      cache.get("a") must beSome("value")
+    }
+
+    "load a value again once the loading failed" in new WithEhCache {
+      Await.result(cache.getOrElseAsync("a", 0)(scala.concurrent.Future.failed(new RuntimeException)), 1.second) must throwA[RuntimeException]
+      Await.result(cache.getOrElseAsync("a", 0)(scala.concurrent.Future.successful("value")), 1.second) must_== "value"
+    }
+
+    "load a missing value only once for concurrent synchronous callers" in new WithEhCache {
+      val loads = new java.util.concurrent.atomic.AtomicInteger
+      val started = new java.util.concurrent.CountDownLatch(8)
+      val release = new java.util.concurrent.CountDownLatch(1)
+      val executor = java.util.concurrent.Executors.newFixedThreadPool(8)
+      implicit val context = scala.concurrent.ExecutionContext.fromExecutor(executor)
+      val callers = (1 to 8).map { _ =>
+        scala.concurrent.Future {
+          started.countDown()
+          Cache.getOrLoad(cache, "a", 0, 5.seconds) {
+            loads.incrementAndGet()
+            release.await()
+            "value"
+          }
+        }
+      }
+      started.await()
+      Thread.sleep(100)
+      release.countDown()
+      val values = try callers.map(Await.result(_, 5.seconds)) finally executor.shutdown()
+      values must_== Seq.fill(8)("value")
+      loads.get must_== 1
+      cache.get("a") must beSome("value")
+    }
+
+    "load a value reentrantly without waiting" in new WithEhCache {
+      Cache.getOrLoad(cache, "a", 0, 5.seconds)(Cache.getOrLoad(cache, "a", 0, 5.seconds)("inner")) must_== "inner"
+      cache.get("a") must beSome("inner")
+    }
+
+    "load a value once waiting for another caller loading it times out" in new WithEhCache {
+      val loaded = scala.concurrent.Promise[Any]()
+      cache.getOrElseAsync("a", 0)(loaded.future)
+      Cache.getOrLoad(cache, "a", 0, 100.millis)("value") must_== "value"
+      loaded.success("value")
+    }
+
+    "increment numbers atomically" in new WithEhCache {
+      cache.incr("a", 1, 10, 0) must_== 10
+      cache.incr("a", 5, 10, 0) must_== 15
+      cache.set("b", 1, 0)
+      cache.incr("b", 1, 0, 0) must_== 2
+      cache.set("c", "value", 0)
+      cache.incr("c", 1, 0, 0) must_== 0
+      val counters = (1 to 100).par.map(_ => cache.incr("d", 1, 1, 0))
+      counters.seq.sorted must_== (1 to 100)
+    }
+
+    "set values only if they are absent" in new WithEhCache {
+      cache.putIfAbsent("a", 1, 0) must beNone
+      cache.putIfAbsent("a", 2, 0) must beSome(1)
+      cache.get("a") must beSome(1)
+    }
+
+    "replace values only if they have the expected value" in new WithEhCache {
+      cache.set("a", 1, 0)
+      cache.replace("a", 2, 3, 0) must beFalse
+      cache.replace("a", 1, 3, 0) must beTrue
+      cache.get("a") must beSome(3)
+      cache.replace("b", 1, 3, 0) must beFalse
+    }
+
+    "store values in separate regions" in new WithEhCache(Map("ehcache.regions.small.maxEntries" -> 2)) {
+      val small = plugin.region("small")
+      small.set("a", 1, 0)
+      cache.get("a") must beNone
+      small.get("a") must beSome(1)
+      small.set("b", 2, 0)
+      small.set("c", 3, 0)
+      small.getAll(Seq("a", "b", "c")).size must_== 2
+    }
+
+    "fail for regions that are not configured" in new WithEhCache {
+      plugin.region("missing") must throwAn[IllegalArgumentException]
+    }
+
+    "count hits and misses of each region" in new WithEhCache(Map("ehcache.regions.small.maxEntries" -> 10)) {
+      val small = plugin.region("small")
+      small.set("a", 1, 0)
+      small.get("a")
+      small.get("b")
+      val stats = plugin.stats("small")
+      stats.hits must_== 1
+      stats.misses must_== 1
+      stats.size must_== 1
+      plugin.stats.keySet must_== Set("play", "small")
+    }
+  }
+
+  abstract class WithEhCache(configuration: Map[String, Any] = Map.empty) extends Around with Scope {
+
+    lazy val plugin = new EhCachePlugin(FakeApplication(configuration))
+
+    def cache = plugin.api
+
+    override def around[T: AsResult](t: => T): SpecsResult = {
+      plugin.onStart()
+      try {
+        AsResult(t)
+      } finally {
+        plugin.onStop()
+      }
+    }
+  }
+
 }
@@ -0,0 +1,117 @@
+package play.api.cache
+
+import org.specs2.mutable._
+import org.specs2.specification.Scope
+import org.specs2.execute.{ Result => SpecsResult, AsResult }
+
+import play.api._
+import play.api.mvc._
+import play.api.libs.iteratee._
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+object CachedSpec extends Specification {
+
+  sequential
+
+  "Cached" should {
+
+    "serve the cached response without invoking the action again" in new WithCachedApplication {
+      var invocations = 0
+      val action = Cached("home")(Action { invocations += 1; Results.Ok("hello") })
+      val (status, headers, body) = run(action(request()))
+      val (cachedStatus, cachedHeaders, cachedBody) = run(action(request()))
+      status must_== 200
+      new String(body) must_== "hello"
+      headers.get("ETag") must beSome
+      cachedStatus must_== status
+      cachedHeaders.get("ETag") must_== headers.get("ETag")
+      new String(cachedBody) must_== "hello"
+      invocations must_== 1
+    }
+
+    "answer a matching If-None-Match header with Not Modified" in new WithCachedApplication {
+      val action = Cached("home")(Action(Results.Ok("hello")))
+      val etag = run(action(request()))._2("ETag")
+      val (status, headers, body) = run(action(request("If-None-Match" -> etag)))
+      status must_== 304
+      headers.get("ETag") must beSome(etag)
+      body must beEmpty
+      run(action(request("If-None-Match" -> "\"other\"")))._1 must_== 200
+    }
+
+    "keep the ETag of the result" in new WithCachedApplication {
+      val action = Cached("home")(Action(Results.Ok("hello").withHeaders("ETag" -> "\"v1\"")))
+      run(action(request()))._2.get("ETag") must beSome("\"v1\"")
+    }
+
+    "not cache results with cookies or errors" in new WithCachedApplication {
+      var invocations = 0
+      val withCookies = Cached("cookies")(Action { invocations += 1; Results.Ok("hello").withCookies(Cookie("name", "value")) })
+      val error = Cached("error")(Action { invocations += 1; Results.NotFound("missing") })
+      run(withCookies(request()))
+      run(withCookies(request()))
+      run(error(request()))
+      run(error(request()))
+      invocations must_== 4
+    }
+
+    "stream results larger than the maximum size without caching them" in new WithCachedApplication(Map("cache.maxResponseSize" -> 10)) {
+      var invocations = 0
+      val action = Cached("large")(Action { invocations += 1; SimpleResult(ResponseHeader(200), Enumerator("hello ", "large ", "world")) })
+      val (status, headers, body) = run(action(request()))
+      status must_== 200
+      headers.get("ETag") must beNone
+      new String(body) must_== "hello large world"
+      new String(run(action(request()))._3) must_== "hello large world"
+      invocations must_== 2
+    }
+
+    "not read results whose length is larger than the maximum size" in new WithCachedApplication(Map("cache.maxResponseSize" -> 10)) {
+      var invocations = 0
+      val action = Cached("long")(Action { invocations += 1; Results.Ok("hello large world").withHeaders("Content-Length" -> "17") })
+      run(action(request()))._2.get("Content-Length") must beSome("17")
+      run(action(request()))
+      invocations must_== 2
+    }
+  }
+
+  def request(requestHeaders: (String, String)*): Request[AnyContent] = Request(new RequestHeader {
+    def id = 1
+    def tags = Map()
+    def uri = "/"
+    def path = "/"
+    def method = "GET"
+    def version = "HTTP/1.1"
+    def queryString = Map()
+    def remoteAddress = "127.0.0.1"
+    lazy val headers = new Headers { val data = requestHeaders.map { case (name, value) => name -> Seq(value) } }
+  }, AnyContentAsEmpty)
+
+  def run(result: Result): (Int, Map[String, String], Array[Byte]) = result match {
+    case AsyncResult(future) => run(Await.result(future, 5.seconds))
+    case result: SimpleResult[_] => (result.header.status, result.header.headers, consume(result))
+  }
+
+  def consume[A](result: SimpleResult[A]): Array[Byte] = {
+    Await.result((result.body &> Enumeratee.map[A](result.writeable.transform)) |>>> Iteratee.consume[Array[Byte]](), 5.seconds)
+  }
+
+  abstract class WithCachedApplication(configuration: Map[String, Any] = Map.empty) extends Around with Scope {
+
+    implicit lazy val app: Application = new FakeApplication(config = configuration) {
+      override val plugins = Seq(new EhCachePlugin(this))
+    }
+
+    override def around[T: AsResult](t: => T): SpecsResult = {
+      app.plugins.foreach(_.onStart())
+      try {
+        AsResult(t)
+      } finally {
+        app.plugins.foreach(_.onStop())
+      }
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+package play.api.cache
+
+import org.specs2.mutable._
+
+object ClockCacheSpec extends Specification {
+
+  "ClockCache" should {
+
+    "set and get values" in {
+      val cache = new ClockCache(10)
+      cache.set("a", "value", 0)
+      cache.set("b", 1, 0)
+      cache.set("c", 2L, 0)
+      cache.get("a") must beSome("value")
+      cache.get("b") must beSome(1)
+      cache.get("c") must beSome(2L)
+      cache.get("d") must beNone
+    }
+
+    "get numbers without boxing them" in {
+      val cache = new ClockCache(10)
+      cache.setLong("a", 42)
+      cache.set("b", 7, 0)
+      cache.set("c", "value", 0)
+      cache.getLong("a", -1) must_== 42
+      cache.getLong("b", -1) must_== 7
+      cache.getLong("c", -1) must_== -1
+      cache.getLong("d", -1) must_== -1
+    }
+
+    "increment numbers" in {
+      val cache = new ClockCache(10)
+      cache.incr("a", 1, 10, 0) must_== 10
+      cache.incr("a", 1, 10, 0) must_== 11
+      cache.incr("a", -5, 10, 0) must_== 6
+      cache.set("b", "value", 0)
+      cache.incr("b", 1, 0, 0) must_== 0
+    }
+
+    "set values only if they are absent" in {
+      val cache = new ClockCache(10)
+      cache.putIfAbsent("a", 1L, 0) must beNone
+      cache.putIfAbsent("a", 2L, 0) must beSome(1L)
+      cache.getLong("a", -1) must_== 1
+    }
+
+    "replace values only if they have the expected value" in {
+      val cache = new ClockCache(10)
+      cache.set("a", "one", 0)
+      cache.replace("a", "two", "three", 0) must beFalse
+      cache.replace("a", "one", "three", 0) must beTrue
+      cache.get("a") must beSome("three")
+    }
+
+    "remove values" in {
+      val cache = new ClockCache(100, stripes = 1)
+      (1 to 50).foreach(i => cache.set("key" + i, i, 0))
+      (1 to 50 by 2).foreach(i => cache.remove("key" + i))
+      (1 to 50).map(i => cache.get("key" + i)) must_== (1 to 50).map(i => Some(i).filter(_ % 2 == 0))
+    }
+
+    "evict values that were not read first" in {
+      val cache = new ClockCache(10, stripes = 1)
+      (1 to 10).foreach(i => cache.set("key" + i, i, 0))
+      cache.get("key1")
+      (11 to 15).foreach(i => cache.set("key" + i, i, 0))
+      cache.get("key1") must beSome(1)
+      cache.stats.size must_== 10
+      cache.stats.evictions must_== 5
+    }
+
+    "count hits and misses" in {
+      val cache = new ClockCache(10)
+      cache.set("a", 1, 0)
+      cache.get("a")
+      cache.get("b")
+      cache.stats must_== CacheStats(1, 1, 0, 1)
+    }
+  }
+
+}
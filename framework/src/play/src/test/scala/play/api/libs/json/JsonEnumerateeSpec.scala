@@ -0,0 +1,73 @@
+package play.api.libs.json
+
+import org.specs2.mutable._
+import play.api.libs.iteratee._
+
+import scala.concurrent.Await
+import scala.concurrent.duration.Duration
+import scala.util.control.Exception._
+
+object JsonEnumerateeSpec extends Specification {
+
+  def parse(enumeratee: Enumeratee[Array[Byte], JsValue], chunks: String*): List[JsValue] = {
+    Await.result(Enumerator(chunks.map(_.getBytes("UTF-8")): _*) |>>> (enumeratee &>> Iteratee.getChunks[JsValue]), Duration(5, "seconds"))
+  }
+
+  "JsonEnumeratee.array" should {
+
+    "emit the elements of an array" in {
+      parse(JsonEnumeratee.array(), """[{"id":1,"tags":["a","b"]}, 2, "three", true, null, [4]]""") must_== List(
+        Json.obj("id" -> 1, "tags" -> Json.arr("a", "b")), JsNumber(2), JsString("three"), JsBoolean(true), JsNull, Json.arr(4))
+    }
+
+    "emit elements split across chunks" in {
+      parse(JsonEnumeratee.array(), """ [{"na""", """me":"a]}\"b"},""", """12""", """3, "é"]  """) must_== List(
+        Json.obj("name" -> "a]}\"b"), JsNumber(123), JsString("é"))
+    }
+
+    "emit nothing for an empty array" in {
+      parse(JsonEnumeratee.array(), "[", " ]") must_== Nil
+    }
+
+    "fail on a value that is not an array" in {
+      allCatch.opt(parse(JsonEnumeratee.array(), """{"id":1}""")) must beNone
+    }
+
+    "fail on a truncated array" in {
+      allCatch.opt(parse(JsonEnumeratee.array(), """[{"id":1}, {"id""")) must beNone
+    }
+
+    "fail on elements without a comma between them" in {
+      allCatch.opt(parse(JsonEnumeratee.array(), "[1 2]")) must beNone
+      allCatch.opt(parse(JsonEnumeratee.array(), """[{"id":1}""", """{"id":2}]""")) must beNone
+      allCatch.opt(parse(JsonEnumeratee.array(), """["a" "b"]""")) must beNone
+      allCatch.opt(parse(JsonEnumeratee.array(), """[1"a"]""")) must beNone
+    }
+
+    "fail on duplicated, leading or trailing commas" in {
+      allCatch.opt(parse(JsonEnumeratee.array(), "[1,,2]")) must beNone
+      allCatch.opt(parse(JsonEnumeratee.array(), "[,1]")) must beNone
+      allCatch.opt(parse(JsonEnumeratee.array(), "[1,", "]")) must beNone
+      allCatch.opt(parse(JsonEnumeratee.array(), "[,]")) must beNone
+    }
+
+    "fail on an element longer than the limit" in {
+      allCatch.opt(parse(JsonEnumeratee.array(10), """[{"name":""", """"abcdefghijklmnop"}]""")) must beNone
+    }
+
+  }
+
+  "JsonEnumeratee.values" should {
+
+    "emit newline-delimited values" in {
+      parse(JsonEnumeratee.values(), "{\"id\":1}\n{\"id\"", ":2}\n", "3") must_== List(
+        Json.obj("id" -> 1), Json.obj("id" -> 2), JsNumber(3))
+    }
+
+    "fail on commas between values" in {
+      allCatch.opt(parse(JsonEnumeratee.values(), "1,2")) must beNone
+    }
+
+  }
+
+}
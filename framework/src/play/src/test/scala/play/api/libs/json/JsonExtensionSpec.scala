@@ -413,6 +413,72 @@ object JsonExtensionSpec extends Specification {
       Json.fromJson[Person2](Json.toJson(Person2(List("bob", "bobby")))).get must beEqualTo(Person2(List("bob", "bobby")))
     }
 
+    "create a generatorWrites[Dog]" in {
+      implicit val userGeneratorWrites = Json.generatorWrites[User]
+      implicit val dogGeneratorWrites = Json.generatorWrites[Dog]
+
+      val dog = Dog("medor", User(45, "toto"))
+      Json.parse(GeneratorWrites.stringify(dog)) must beEqualTo(Json.obj("name" -> "medor", "master" -> Json.obj("age" -> 45, "name" -> "toto")))
+      GeneratorWrites.stringify(dog) must beEqualTo("""{"name":"medor","master":{"age":45,"name":"toto"}}""")
+    }
+
+    "create a generatorWrites[RecUser] falling back on writes" in {
+      implicit val catWrites = Json.writes[Cat]
+      implicit val recUserGeneratorWrites = Json.generatorWrites[RecUser]
+
+      Json.parse(GeneratorWrites.stringify(
+        RecUser(
+          "bob", 
+          Some(Cat("minou")),
+          List("bobsleig", "manhunting"),
+          List(RecUser("tom"))
+        )
+      )) must beEqualTo(
+        Json.obj(
+          "name" -> "bob", 
+          "cat" -> Json.obj("name" -> "minou"),
+          "hobbies" -> Json.arr("bobsleig", "manhunting"),
+          "friends" -> Json.arr(Json.obj( "name" -> "tom", "hobbies" -> Json.arr(), "friends" -> Json.arr() ))
+        )
+      )
+    }
+
+    "create a generatorWrites[User1] omitting None fields" in {
+      implicit val user1GeneratorWrites = Json.generatorWrites[User1]
+
+      GeneratorWrites.stringify(User1("bob", Some(User1("tom")))) must beEqualTo("""{"name":"bob","friend":{"name":"tom"}}""")
+    }
+
+    "create a generatorWrites[UserMap]" in {
+      implicit val userMapGeneratorWrites = Json.generatorWrites[UserMap]
+
+      Json.parse(GeneratorWrites.stringify(UserMap("bob", Map("tom" -> UserMap("tom"))))) must beEqualTo(
+        Json.obj("name" -> "bob", "friends" -> Json.obj("tom" -> Json.obj("name" -> "tom", "friends" -> Json.obj())))
+      )
+    }
+
+    "write to a stream without closing it" in {
+      implicit val userGeneratorWrites = Json.generatorWrites[User]
+
+      var closed = false
+      val out = new java.io.ByteArrayOutputStream {
+        override def close() { closed = true }
+      }
+      GeneratorWrites.writeTo(User(45, "toto"), out)
+      out.write('\n')
+      GeneratorWrites.writeTo(User(23, "tata"), out)
+      closed must beFalse
+      new String(out.toByteArray, "UTF-8") must beEqualTo("{\"age\":45,\"name\":\"toto\"}\n{\"age\":23,\"name\":\"tata\"}")
+    }
+
+    "write as the writes created by macro" in {
+      implicit val programWrites = Json.writes[Program]
+      val programGeneratorWrites = Json.generatorWrites[Program]
+
+      val program = Program(1, "news", Some("logo.png"), None)
+      GeneratorWrites.stringify(program)(programGeneratorWrites) must beEqualTo(Json.stringify(Json.toJson(program)))
+    }
+
   }    
 
 }
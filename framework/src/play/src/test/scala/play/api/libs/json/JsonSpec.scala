@@ -106,6 +106,22 @@ object JsonSpec extends Specification {
       )
     }
 
+    "look up the fields of small and large JsObject alike" in {
+      def fields(count: Int) = (1 to count).map(i => ("field" + i) -> JsNumber(i))
+      val small = JsObject(fields(3) :+ ("field2" -> JsString("last")))
+      val large = JsObject(fields(1000) :+ ("field2" -> JsString("last")))
+
+      (small \ "field3") must beEqualTo(JsNumber(3))
+      (large \ "field1000") must beEqualTo(JsNumber(1000))
+      (small \ "field2") must beEqualTo(JsString("last"))
+      (large \ "field2") must beEqualTo(JsString("last"))
+      (large \ "field1001") must beAnInstanceOf[JsUndefined]
+      (__ \ "field500").asSingleJson(large) must beEqualTo(JsNumber(500))
+
+      large.fields.take(3).map(_._1) must beEqualTo(Seq("field1", "field2", "field3"))
+      JsObject(fields(1000).reverse) must beEqualTo(JsObject(fields(1000)))
+    }
+
     "serialize and deserialize maps properly" in {
       val c = Car(1, Map("ford" -> "1954 model"))
       val jsonCar = toJson(c)
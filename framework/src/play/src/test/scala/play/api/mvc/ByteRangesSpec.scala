@@ -0,0 +1,47 @@
+package play.api.mvc
+
+import org.specs2.mutable._
+
+class ByteRangesSpec extends Specification {
+
+  "ByteRanges" should {
+
+    "parse a single range" in {
+      ByteRanges.parse("bytes=0-499", 1000) must beSome(Seq((0L, 499L)))
+    }
+
+    "parse an open ended range" in {
+      ByteRanges.parse("bytes=500-", 1000) must beSome(Seq((500L, 999L)))
+    }
+
+    "parse a suffix range" in {
+      ByteRanges.parse("bytes=-100", 1000) must beSome(Seq((900L, 999L)))
+      ByteRanges.parse("bytes=-2000", 1000) must beSome(Seq((0L, 999L)))
+    }
+
+    "parse multiple ranges" in {
+      ByteRanges.parse("bytes=0-0, -1", 1000) must beSome(Seq((0L, 0L), (999L, 999L)))
+    }
+
+    "truncate ranges to the content length" in {
+      ByteRanges.parse("bytes=900-1500", 1000) must beSome(Seq((900L, 999L)))
+    }
+
+    "drop unsatisfiable ranges" in {
+      ByteRanges.parse("bytes=1000-1100, 0-9", 1000) must beSome(Seq((0L, 9L)))
+      ByteRanges.parse("bytes=1000-", 1000) must beSome(Seq.empty[(Long, Long)])
+    }
+
+    "ignore invalid ranges" in {
+      ByteRanges.parse("items=0-10", 1000) must beNone
+      ByteRanges.parse("bytes=", 1000) must beNone
+      ByteRanges.parse("bytes=10-5", 1000) must beNone
+      ByteRanges.parse("bytes=a-b", 1000) must beNone
+    }
+
+    "ignore too many ranges" in {
+      ByteRanges.parse("bytes=" + (0 to ByteRanges.MaxRanges).map(i => i + "-" + i).mkString(","), 1000) must beNone
+    }
+  }
+
+}
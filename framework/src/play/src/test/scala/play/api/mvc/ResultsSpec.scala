@@ -64,6 +64,26 @@ object ResultsSpec extends Specification {
       setCookies("logged").maxAge.get must be_<=(1)
     }
 
+    "keep added cookies apart from the other headers" in {
+      val header = Ok("hello").withHeaders("Set-Cookie" -> Cookies.encode(Seq(Cookie("theme", "blue"), Cookie("lang", "en"))))
+        .withCookies(Cookie("lang", "fr"))
+        .discardingCookies(DiscardingCookie("logged"))
+        .header
+
+      header.plainHeaders.get("Set-Cookie") must beSome
+      header.cookies.map(_.name) must_== Seq("logged", "lang")
+      header.setCookies.map(c => c.name -> c.value) must_== Seq("logged" -> "", "lang" -> "fr", "theme" -> "blue")
+      Cookies.decode(header.headers("Set-Cookie")).map(c => c.name -> c.value).toSet must_== header.setCookies.map(c => c.name -> c.value).toSet
+    }
+
+    "compare headers with added cookies to their encoded form" in {
+      val header = Ok.withCookies(Cookie("theme", "blue")).withHeaders("ETag" -> "0").header
+      val encoded = ResponseHeader(200, Map("Set-Cookie" -> Cookies.encode(Seq(Cookie("theme", "blue"))), "ETag" -> "0"))
+      header must_== encoded
+      header.hashCode must_== encoded.hashCode
+      header.withCookies(Nil).headers.get("ETag") must beSome("0")
+      (header.headers - "Set-Cookie") must_== Map("ETag" -> "0")
+    }
 
     "allow discarding a cookie by deprecated names method" in {
       Cookies.decode(Ok.discardingCookies("blah").header.headers("Set-Cookie")).head.name must_== "blah"
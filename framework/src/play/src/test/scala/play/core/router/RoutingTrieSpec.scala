@@ -0,0 +1,107 @@
+package play.core.router
+
+import org.specs2.mutable.Specification
+import play.api.mvc.{ Handler, Headers, RequestHeader }
+import play.core.{ Router, RoutingTrie, PathPattern, DynamicPart, StaticPart }
+import play.core.Router.{ Route, RouteParams }
+
+object RoutingTrieSpec extends Specification {
+
+  case class Routed(index: Int, params: RouteParams) extends Handler
+
+  case class DummyRequestHeader(method: String, path: String) extends RequestHeader {
+    def id = 1
+    def tags = Map()
+    def uri = path
+    def version = ""
+    def queryString = Map()
+    def remoteAddress = ""
+    lazy val headers = new Headers { val data = Seq.empty }
+  }
+
+  val routes = List[AnyRef](
+    Route("GET", PathPattern(Seq(StaticPart("/"), StaticPart("")))),
+    Route("GET", PathPattern(Seq(StaticPart("/"), StaticPart("users/"), DynamicPart("id", "[0-9]+", false)))),
+    Route("GET", PathPattern(Seq(StaticPart("/"), StaticPart("users/"), DynamicPart("name", "[^/]+", true)))),
+    Route("POST", PathPattern(Seq(StaticPart("/"), StaticPart("users/"), DynamicPart("name", "[^/]+", true)))),
+    Route("GET", PathPattern(Seq(StaticPart("/"), StaticPart("items/"), DynamicPart("id", "[0-9]+", false), StaticPart(".json")))),
+    Route("GET", PathPattern(Seq(StaticPart("/"), StaticPart("assets/"), DynamicPart("file", ".+", false)))),
+    Route("GET", PathPattern(Seq(StaticPart("/"), StaticPart("assets/main.css"))))
+  )
+
+  val router = RoutingTrie(routes).dispatch {
+    case (index, params) => Routed(index, params)
+  }
+
+  def route(method: String, path: String) = router.lift(DummyRequestHeader(method, path)).map {
+    case Routed(index, params) => index -> params.path.mapValues(_.right.get)
+  }
+
+  "RoutingTrie" should {
+
+    "route a static path" in {
+      route("GET", "/") must beSome(0 -> Map.empty[String, String])
+    }
+
+    "select routes by method" in {
+      route("POST", "/users/bob") must beSome(3 -> Map("name" -> "bob"))
+      route("DELETE", "/users/bob") must beNone
+    }
+
+    "check custom constraints on a single segment" in {
+      route("GET", "/users/42") must beSome(1 -> Map("id" -> "42"))
+      route("GET", "/users/bob") must beSome(2 -> Map("name" -> "bob"))
+    }
+
+    "decode encodeable parameters" in {
+      route("GET", "/users/some%20one") must beSome(2 -> Map("name" -> "some one"))
+    }
+
+    "match segments mixing static and dynamic parts" in {
+      route("GET", "/items/12.json") must beSome(4 -> Map("id" -> "12"))
+      route("GET", "/items/foo.json") must beNone
+    }
+
+    "match dynamic parts spanning several segments" in {
+      route("GET", "/assets/js/app.js") must beSome(5 -> Map("file" -> "js/app.js"))
+    }
+
+    "preserve declaration order" in {
+      route("GET", "/assets/main.css") must beSome(5 -> Map("file" -> "main.css"))
+    }
+
+    "not match missing or extra segments" in {
+      route("GET", "/users") must beNone
+      route("GET", "/users/") must beNone
+      route("GET", "/users/42/extra") must beNone
+    }
+
+    "behave like the route patterns" in {
+      val paths = Seq("/", "/users/1", "/users/a%2", "/items/1.json", "/assets/a/b", "/nowhere", "//users/1")
+      forall(paths) { path =>
+        val request = DummyRequestHeader("GET", path)
+        val expected = routes.zipWithIndex.collectFirst {
+          case (route: Route.Matcher, index) if route.unapply(request).isDefined => index
+        }
+        router.lift(request).map { case Routed(index, _) => index } must_== expected
+      }
+    }
+
+    "classify segment local constraints" in {
+      RoutingTrie.isSegmentLocal("[^/]+") must beTrue
+      RoutingTrie.isSegmentLocal("[0-9]+") must beTrue
+      RoutingTrie.isSegmentLocal("\\d{4}-\\d{2}") must beTrue
+      RoutingTrie.isSegmentLocal(".+") must beFalse
+      RoutingTrie.isSegmentLocal("[^a]+") must beFalse
+      RoutingTrie.isSegmentLocal("[!-9]+") must beFalse
+      RoutingTrie.isSegmentLocal("\\S+") must beFalse
+      RoutingTrie.isSegmentLocal("[a-z\\.]+") must beTrue
+      RoutingTrie.isSegmentLocal("\\057") must beFalse
+      RoutingTrie.isSegmentLocal("[\\0]+") must beFalse
+      RoutingTrie.isSegmentLocal("\\x2F") must beFalse
+      RoutingTrie.isSegmentLocal("\\u002F") must beFalse
+      RoutingTrie.isSegmentLocal("(a)\\1") must beFalse
+    }
+  }
+
+}
@@ -0,0 +1,32 @@
+package play.core.server.netty
+
+import org.specs2.mutable._
+import org.jboss.netty.handler.codec.http._
+
+object NettyHeadersSpec extends Specification {
+
+  def headers(values: (String, String)*) = {
+    val request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/")
+    values.foreach { case (name, value) => request.addHeader(name, value) }
+    new NettyHeaders(request)
+  }
+
+  "NettyHeaders" should {
+
+    "look up headers case insensitively" in {
+      val h = headers("Content-Type" -> "text/plain", "Accept" -> "text/html", "accept" -> "application/json")
+      h.get("content-type") must beSome("text/plain")
+      h.getAll("ACCEPT") must_== Seq("text/html", "application/json")
+      h.get("Cookie") must beNone
+      h.getAll("Cookie") must beEmpty
+    }
+
+    "convert to a case insensitive map" in {
+      val h = headers("Content-Type" -> "text/plain", "X-Custom" -> "a", "X-Custom" -> "b")
+      h.toMap.get("x-custom") must beSome(Seq("a", "b"))
+      h.keys.contains("content-type") must beTrue
+      h.toSimpleMap must_== Map("Content-Type" -> "text/plain", "X-Custom" -> "a")
+    }
+  }
+
+}
@@ -447,9 +447,11 @@ object RoutesCompiler {
             |
             |%s 
             |    
-            |def routes:PartialFunction[RequestHeader,Handler] = {        
+            |private[this] lazy val router = routingTrie.dispatch {        
             |%s
             |}
+            |
+            |def routes:PartialFunction[RequestHeader,Handler] = router
             |    
             |}
         """.stripMargin.format(
@@ -940,6 +942,13 @@ object RoutesCompiler {
           r.router
         )
     }.mkString("\n") +
+      """|
+         |private[this] lazy val routingTrie = RoutingTrie(List[AnyRef](%s))
+      """.stripMargin.format(
+        rules.zipWithIndex.map {
+          case (r @ Route(_, _, _, _), i) => r.call.packageName.replace(".", "_") + "_" + r.call.controller.replace(".", "_") + "_" + r.call.method + i
+          case (r @ Include(_, _), i) => r.router.replace(".", "_") + i
+        }.mkString(",")) +
       """|
          |def documentation = List(%s).foldLeft(List.empty[(String,String,String)]) { (s,e) => e.asInstanceOf[Any] match {
          |  case r @ (_,_,_) => s :+ r.asInstanceOf[(String,String,String)]
@@ -964,20 +973,11 @@ object RoutesCompiler {
    * Generate the routing stuff
    */
   def routing(routes: List[Rule]): String = {
-    Option(routes.zipWithIndex.map {
-      case (r @ Include(_, _), i) =>
-        """
-            |%s
-            |case %s%s(handler) => handler
-        """.stripMargin.format(
-          markLines(r),
-          r.router.replace(".", "_"),
-          i
-        )
+    Option(routes.zipWithIndex.collect {
       case (r @ Route(_, _, _, _), i) =>
         """
             |%s
-            |case %s%s(params) => {
+            |case (%s, params) => {
             |   call%s { %s
             |        invokeHandler(%s%s, %s)
             |   }
@@ -985,8 +985,7 @@ object RoutesCompiler {
         """.stripMargin.format(
           markLines(r),
 
-          // alias
-          r.call.packageName.replace(".", "_") + "_" + r.call.controller.replace(".", "_") + "_" + r.call.method,
+          // index in the routing trie
           i,
 
           // binding